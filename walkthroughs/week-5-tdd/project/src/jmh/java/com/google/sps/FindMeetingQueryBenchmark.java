@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the meeting query engines on synthetic calendars. Run with the {@code benchmark}
+ * profile, which also turns on the GC profiler to report the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindMeetingQueryBenchmark {
+  private static final long SEED = 2020;
+  private static final int MEETING_SIZE = 8;
+  private static final long DURATION = 30;
+
+  @Param({"100", "10000"})
+  public int attendees;
+
+  @Param({"4", "16"})
+  public int eventsPerPerson;
+
+  @Param({"0.1", "0.5"})
+  public double overlapDensity;
+
+  @Param({"0.0", "0.5"})
+  public double optionalRatio;
+
+  private List<Event> events;
+  private EventIndex index;
+  private CalendarStore store;
+  private MeetingRequest request;
+  private List<TimeRange> times;
+  private final PackedIntervalSet packed = new PackedIntervalSet();
+
+  private final FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+  private final BitsetMeetingQuery bitsetMeetingQuery = new BitsetMeetingQuery();
+
+  @Setup
+  public void setUp() {
+    SyntheticCalendar calendar =
+        new SyntheticCalendar(attendees, eventsPerPerson, overlapDensity, SEED);
+    events = calendar.getEvents();
+    index = new EventIndex(events);
+    store = new CalendarStore(events);
+    request = calendar.newRequest(MEETING_SIZE, optionalRatio, DURATION);
+    times = calendar.getShuffledTimes();
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryAllEvents() {
+    return findMeetingQuery.query(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryEventIndex() {
+    return findMeetingQuery.query(index, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryCalendarStore() {
+    return findMeetingQuery.query(store, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryBitset() {
+    return bitsetMeetingQuery.query(index, request);
+  }
+
+  @Benchmark
+  public List<TimeRange> mergeNestedOrOverlappingEvents() {
+    // The merge sorts its input, so it gets a fresh copy every time.
+    return findMeetingQuery.mergeNestedOrOverlappingEvnets(new ArrayList<>(times));
+  }
+
+  @Benchmark
+  public int mergePacked() {
+    packed.clear();
+    for (TimeRange time : times) {
+      packed.add(time);
+    }
+    packed.merge();
+    return packed.size();
+  }
+
+  @Benchmark
+  public List<TimeRange> sortByStart() {
+    List<TimeRange> copy = new ArrayList<>(times);
+    copy.sort(TimeRange.ORDER_BY_START);
+    return copy;
+  }
+
+  @Benchmark
+  public List<TimeRange> sortByEnd() {
+    List<TimeRange> copy = new ArrayList<>(times);
+    copy.sort(TimeRange.ORDER_BY_END);
+    return copy;
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random, but repeatable, calendars for benchmarks.
+ */
+public final class SyntheticCalendar {
+  // Events are placed during working hours, where real calendars are the most crowded.
+  private static final int WORKDAY_START = TimeRange.getTimeInMinutes(8, 0);
+  private static final int WORKDAY_END = TimeRange.getTimeInMinutes(18, 0);
+  private static final int[] DURATIONS = {15, 30, 30, 45, 60, 60, 90, 120};
+
+  private final List<String> people = new ArrayList<>();
+  private final List<Event> events = new ArrayList<>();
+  private final Random random;
+
+  /**
+   * Creates a calendar.
+   *
+   * @param attendees How many people the calendar has.
+   * @param eventsPerPerson How many events each person organizes.
+   * @param overlapDensity The chance, from 0 to 1, that an event overlaps the one its organizer has
+   *     just been given, and that it is shared with a second person. Higher values mean more
+   *     merging work per query.
+   * @param seed The seed for the random numbers, so runs can be compared.
+   */
+  public SyntheticCalendar(int attendees, int eventsPerPerson, double overlapDensity, long seed) {
+    this.random = new Random(seed);
+    for (int i = 0; i < attendees; i++) {
+      people.add("Person " + i);
+    }
+
+    for (String person : people) {
+      TimeRange previous = null;
+      for (int i = 0; i < eventsPerPerson; i++) {
+        int duration = DURATIONS[random.nextInt(DURATIONS.length)];
+        boolean overlaps = random.nextDouble() < overlapDensity;
+        int start = overlaps && previous != null
+            ? previous.start() + random.nextInt(Math.max(1, previous.duration()))
+            : WORKDAY_START + random.nextInt(WORKDAY_END - WORKDAY_START);
+        // Keep every event inside of the day.
+        TimeRange when = TimeRange.fromStartDuration(
+            start, Math.min(duration, TimeRange.END_OF_DAY + 1 - start));
+
+        List<String> attendeesOfEvent = new ArrayList<>();
+        attendeesOfEvent.add(person);
+        if (overlaps) {
+          attendeesOfEvent.add(people.get(random.nextInt(people.size())));
+        }
+        events.add(new Event("Event " + events.size(), when, attendeesOfEvent));
+        previous = when;
+      }
+    }
+  }
+
+  /**
+   * Returns a read-only list of every event in the calendar.
+   */
+  public List<Event> getEvents() {
+    return Collections.unmodifiableList(events);
+  }
+
+  /**
+   * Returns a request for a meeting with {@code size} random people from the calendar, of which
+   * about {@code optionalRatio} are optional.
+   */
+  public MeetingRequest newRequest(int size, double optionalRatio, long duration) {
+    List<String> shuffled = new ArrayList<>(people);
+    Collections.shuffle(shuffled, random);
+    List<String> invited = shuffled.subList(0, Math.min(size, shuffled.size()));
+
+    List<String> required = new ArrayList<>();
+    List<String> optional = new ArrayList<>();
+    for (String person : invited) {
+      if (random.nextDouble() < optionalRatio) {
+        optional.add(person);
+      } else {
+        required.add(person);
+      }
+    }
+    MeetingRequest request = new MeetingRequest(required, duration);
+    for (String person : optional) {
+      request.addOptionalAttendee(person);
+    }
+    return request;
+  }
+
+  /**
+   * Returns the times of every event, shuffled.
+   */
+  public List<TimeRange> getShuffledTimes() {
+    List<TimeRange> times = new ArrayList<>();
+    for (Event event : events) {
+      times.add(event.getWhen());
+    }
+    Collections.shuffle(times, random);
+    return times;
+  }
+}
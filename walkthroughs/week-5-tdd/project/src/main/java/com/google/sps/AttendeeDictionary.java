@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every attendee name a small int id, counting up from 0, so that attendees can be stored
+ * and compared as ints. Ids are never given back, so a name keeps its id for as long as the
+ * dictionary lives. Dictionaries are thread-safe, and looking up a name or an id doesn't lock.
+ *
+ * <p>Since no name is ever freed, the global dictionary only grows: every attendee of every event
+ * loaded, imported or read from a snapshot stays in it for the life of the process, even once no
+ * calendar has them. So a dictionary holds a bounded number of names, about a million for the
+ * global one. Once it is full, new names get no id, and the attendee sets that hold them compare
+ * them by name instead, which is slower but still right.
+ */
+public final class AttendeeDictionary {
+  // About a hundred bytes a name, so the global dictionary stays around 100 MB at most.
+  static final int GLOBAL_MAX_SIZE = 1 << 20;
+
+  private static final AttendeeDictionary GLOBAL = new AttendeeDictionary(GLOBAL_MAX_SIZE);
+
+  private final int maxSize;
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Names by id. Only the first {@code count} are set; a thread that reads {@code count} sees them.
+  private volatile String[] names = new String[16];
+  private volatile int count;
+
+  /**
+   * Creates an empty dictionary that gives out at most {@code maxSize} ids.
+   */
+  AttendeeDictionary(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize cannot be negative");
+    }
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the dictionary shared by every {@link Event}. Requests only look names up in it.
+   */
+  public static AttendeeDictionary global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Returns the id of {@code name}, giving it the next free id if it doesn't have one yet, or -1 if
+   * it doesn't and the dictionary is full. Must be non-null.
+   */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (this) {
+      id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+
+      int newId = count;
+      if (newId == maxSize) {
+        return -1;
+      }
+      if (newId == names.length) {
+        names = Arrays.copyOf(names, (int) Math.min((long) newId * 2, maxSize));
+      }
+      names[newId] = name;
+      count = newId + 1;
+      // Only hand out the id once its name can be read.
+      ids.put(name, newId);
+      return newId;
+    }
+  }
+
+  /**
+   * Returns the id of {@code name}, or -1 if it doesn't have one.
+   */
+  public int lookup(String name) {
+    Integer id = name == null ? null : ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the name with the given id.
+   */
+  public String name(int id) {
+    if (id < 0 || id >= count) {
+      throw new IllegalArgumentException("unknown id: " + id);
+    }
+    return names[id];
+  }
+
+  /**
+   * Returns the number of names in the dictionary.
+   */
+  public int size() {
+    return count;
+  }
+}
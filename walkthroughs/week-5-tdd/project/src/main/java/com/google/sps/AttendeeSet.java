@@ -0,0 +1,293 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * A read-only set of attendees, stored as the sorted ids the {@link AttendeeDictionary#global()
+ * global dictionary} gave them. It reads like a set of names, but checking whether two sets share
+ * somebody only compares ints.
+ *
+ * <p>Only the attendees of calendar events are added to the dictionary, by {@link #of}. The sets
+ * of a request are made with {@link #lookup}, which keeps the names the dictionary doesn't know
+ * to the side instead, so that requests can't make the dictionary grow. Events keep their new
+ * names to the side too once the dictionary is full.
+ */
+public final class AttendeeSet extends AbstractSet<String> {
+  private static final String[] NO_NAMES = new String[0];
+
+  public static final AttendeeSet EMPTY = new AttendeeSet(new int[0], NO_NAMES);
+
+  private final int[] ids;
+
+  // The names the dictionary didn't know when the set was made, sorted. Nobody in the calendar
+  // had them then, so they are only compared by name.
+  private final String[] unknown;
+
+  // The set hash code, which has to match other sets of the same names. Computed when first used.
+  private int hashCode;
+
+  private AttendeeSet(int[] ids, String[] unknown) {
+    this.ids = ids;
+    this.unknown = unknown;
+  }
+
+  /**
+   * Returns the set of {@code names}, adding the new ones to the dictionary while it has room.
+   * Meant for the attendees of calendar events. Must be non-null and hold no null names.
+   */
+  public static AttendeeSet of(Collection<String> names) {
+    if (names instanceof AttendeeSet && ((AttendeeSet) names).unknown.length == 0) {
+      return (AttendeeSet) names;
+    }
+
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    int[] ids = new int[names.size()];
+    int size = 0;
+    List<String> unknown = new ArrayList<>(0);
+    for (String name : names) {
+      int id = dictionary.intern(name);
+      if (id >= 0) {
+        ids[size++] = id;
+      } else {
+        unknown.add(name);
+      }
+    }
+    return fromIds(ids, size, sortedUnique(unknown));
+  }
+
+  /**
+   * Returns the set of {@code names} without adding any of them to the dictionary. Meant for the
+   * attendees of a request. Must be non-null and hold no null names.
+   */
+  public static AttendeeSet lookup(Collection<String> names) {
+    if (names instanceof AttendeeSet) {
+      return (AttendeeSet) names;
+    }
+
+    AttendeeDictionary dictionary = AttendeeDictionary.global();
+    int[] ids = new int[names.size()];
+    int size = 0;
+    List<String> unknown = new ArrayList<>(0);
+    for (String name : names) {
+      if (name == null) {
+        throw new IllegalArgumentException("name cannot be null");
+      }
+      int id = dictionary.lookup(name);
+      if (id >= 0) {
+        ids[size++] = id;
+      } else {
+        unknown.add(name);
+      }
+    }
+    return fromIds(ids, size, sortedUnique(unknown));
+  }
+
+  /**
+   * Returns a set with the names of this set and {@code names}, without adding any of them to the
+   * dictionary.
+   */
+  public AttendeeSet with(Collection<String> names) {
+    if (names.isEmpty()) {
+      return this;
+    }
+    List<String> all = new ArrayList<>(size() + names.size());
+    all.addAll(this);
+    all.addAll(names);
+    AttendeeSet union = lookup(all);
+    return union.equals(this) ? this : union;
+  }
+
+  /**
+   * Returns a set with the names of this set and {@code name}. See {@link #with(Collection)}.
+   */
+  public AttendeeSet with(String name) {
+    return with(Collections.singletonList(name));
+  }
+
+  @Override
+  public int size() {
+    return ids.length + unknown.length;
+  }
+
+  @Override
+  public boolean contains(Object name) {
+    if (!(name instanceof String)) {
+      return false;
+    }
+    int id = AttendeeDictionary.global().lookup((String) name);
+    return (id >= 0 && Arrays.binarySearch(ids, id) >= 0)
+        || Arrays.binarySearch(unknown, name) >= 0;
+  }
+
+  /**
+   * Returns true if at least one attendee is in both this set and {@code other}.
+   */
+  public boolean intersects(AttendeeSet other) {
+    int i = 0;
+    int j = 0;
+    while (i < ids.length && j < other.ids.length) {
+      if (ids[i] == other.ids[j]) {
+        return true;
+      }
+      if (ids[i] < other.ids[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    // A name may have been added to the dictionary since the set was made. This only costs a
+    // lookup per name for sets that have unknown names, which are rare.
+    for (String name : unknown) {
+      if (other.contains(name)) {
+        return true;
+      }
+    }
+    for (String name : other.unknown) {
+      if (contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < ids.length + unknown.length;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        int index = next++;
+        return index < ids.length
+            ? AttendeeDictionary.global().name(ids[index])
+            : unknown[index - ids.length];
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    // Sets of only known names are the same if their ids are. An unknown name may have been
+    // given an id since, so anything else is compared by name.
+    if (other instanceof AttendeeSet && unknown.length == 0
+        && ((AttendeeSet) other).unknown.length == 0) {
+      return Arrays.equals(ids, ((AttendeeSet) other).ids);
+    }
+    return super.equals(other);
+  }
+
+  @Override
+  public int hashCode() {
+    if (hashCode == 0) {
+      hashCode = super.hashCode();
+    }
+    return hashCode;
+  }
+
+  // Sorts the first size ids and drops the repeated ones.
+  private static AttendeeSet fromIds(int[] ids, int size, String[] unknown) {
+    if (size == 0 && unknown.length == 0) {
+      return EMPTY;
+    }
+
+    Arrays.sort(ids, 0, size);
+    int unique = size == 0 ? 0 : 1;
+    for (int i = 1; i < size; i++) {
+      if (ids[i] != ids[unique - 1]) {
+        ids[unique++] = ids[i];
+      }
+    }
+    return new AttendeeSet(unique == ids.length ? ids : Arrays.copyOf(ids, unique), unknown);
+  }
+
+  private static String[] sortedUnique(List<String> names) {
+    if (names.isEmpty()) {
+      return NO_NAMES;
+    }
+    return new TreeSet<>(names).toArray(NO_NAMES);
+  }
+
+  /**
+   * Reads and writes attendee sets as JSON arrays of names. The names read are added to the
+   * dictionary, so this is only for the attendees of calendar events.
+   */
+  public static class GsonAdapter extends TypeAdapter<AttendeeSet> {
+    @Override
+    public void write(JsonWriter out, AttendeeSet attendees) throws IOException {
+      if (attendees == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginArray();
+      for (String name : attendees) {
+        out.value(name);
+      }
+      out.endArray();
+    }
+
+    @Override
+    public AttendeeSet read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return EMPTY;
+      }
+      List<String> names = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext()) {
+        names.add(in.nextString());
+      }
+      in.endArray();
+      return toSet(names);
+    }
+
+    AttendeeSet toSet(Collection<String> names) {
+      return of(names);
+    }
+  }
+
+  /**
+   * Reads and writes attendee sets as JSON arrays of names, without adding the names read to the
+   * dictionary. For the attendees of requests.
+   */
+  public static final class LookupGsonAdapter extends GsonAdapter {
+    @Override
+    AttendeeSet toSet(Collection<String> names) {
+      return lookup(names);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Counts how many people in a group are free during each part of the day. The day is cut into
+ * buckets of a fixed number of minutes, and a person is free in a bucket only if none of their
+ * events overlap it. Every busy range adds one to the count at its first bucket and takes one
+ * away after its last, so one pass of prefix sums gives every bucket, in O(events + buckets) time.
+ */
+public final class AvailabilityHeatmap {
+
+  /**
+   * Returns, for every bucket of {@code bucketMinutes} minutes from the start of the day, how many
+   * of {@code attendees} are free for all of it. The last bucket is shorter if the buckets don't
+   * divide the day evenly. People named more than once count once. {@code bucketMinutes} must be
+   * between 1 and the length of the day.
+   */
+  public int[] query(CalendarView calendar, Collection<String> attendees, int bucketMinutes) {
+    int day = TimeRange.WHOLE_DAY.duration();
+    if (bucketMinutes <= 0 || bucketMinutes > day) {
+      throw new IllegalArgumentException("bucketMinutes must be between 1 and " + day);
+    }
+
+    int buckets = (day + bucketMinutes - 1) / bucketMinutes;
+    // busyChanges[i] is how many more people are busy in bucket i than in bucket i - 1.
+    int[] busyChanges = new int[buckets + 1];
+    Collection<String> people = new HashSet<>(attendees);
+    for (String attendee : people) {
+      // The busy times come ordered by start, so a bucket that an earlier range has already
+      // marked is never marked twice for the same person.
+      int markedUntil = 0;
+      for (TimeRange busy : calendar.getBusyTimes(attendee, TimeRange.WHOLE_DAY)) {
+        int firstBucket = Math.max(busy.start(), 0) / bucketMinutes;
+        int endBucket = (Math.min(busy.end(), day) + bucketMinutes - 1) / bucketMinutes;
+        int from = Math.max(firstBucket, markedUntil);
+        if (busy.duration() > 0 && from < endBucket) {
+          busyChanges[from]++;
+          busyChanges[endBucket]--;
+          markedUntil = endBucket;
+        }
+      }
+    }
+
+    int[] free = new int[buckets];
+    int busy = 0;
+    for (int i = 0; i < buckets; i++) {
+      busy += busyChanges[i];
+      free[i] = people.size() - busy;
+    }
+    return free;
+  }
+}
@@ -0,0 +1,170 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A calendar that can be read and written from many threads at once. Readers take the current
+ * {@link CalendarSnapshot} and query it without locking. Writers take turns: each update copies the
+ * events, applies a whole batch of changes to the copy, indexes it and then publishes it as the
+ * next snapshot in one step. Readers never see half of a batch, and a query keeps using the
+ * snapshot it started with even if a newer one is published meanwhile.
+ *
+ * <p>Every update costs time in the size of the whole calendar, so changes should be sent in
+ * batches rather than one event at a time. Something that adds events in many batches, such as an
+ * import, should collect them in a {@link Staging} and publish them all at once.
+ */
+public final class CalendarRepository {
+  private final AtomicReference<CalendarSnapshot> snapshot;
+
+  // Held while building the next snapshot, so that only one writer works at a time.
+  private final Object writeLock = new Object();
+
+  public CalendarRepository() {
+    this(Collections.<Event>emptyList());
+  }
+
+  /**
+   * Creates a repository whose first snapshot holds {@code events}. Must be non-null.
+   */
+  public CalendarRepository(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+    snapshot = new AtomicReference<>(
+        new CalendarSnapshot(0, new ArrayList<>(events), new HashMap<String, Long>()));
+  }
+
+  /**
+   * Returns the latest snapshot.
+   */
+  public CalendarSnapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Adds {@code events} to the calendar and returns the snapshot that has them.
+   */
+  public CalendarSnapshot addEvents(Collection<Event> events) {
+    return update(events, Collections.<Event>emptyList());
+  }
+
+  /**
+   * Removes one copy of each of {@code removed} and adds {@code added}, all in one new snapshot,
+   * which is returned. Removed events the calendar doesn't have are ignored.
+   */
+  public CalendarSnapshot update(Collection<Event> added, Collection<Event> removed) {
+    if (added == null || removed == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    synchronized (writeLock) {
+      CalendarSnapshot current = snapshot.get();
+      long version = current.getVersion() + 1;
+      // Keeps the versions of people who no longer have any events, too, since an answer from
+      // before their events were removed is stale.
+      Map<String, Long> attendeeVersions = current.copyAttendeeVersions();
+
+      Map<Event, Integer> toRemove = new HashMap<>();
+      for (Event event : removed) {
+        toRemove.merge(event, 1, Integer::sum);
+      }
+      List<Event> events = new ArrayList<>(current.getEvents().size() + added.size());
+      for (Event event : current.getEvents()) {
+        Integer count = toRemove.get(event);
+        if (count == null) {
+          events.add(event);
+          continue;
+        }
+        if (count == 1) {
+          toRemove.remove(event);
+        } else {
+          toRemove.put(event, count - 1);
+        }
+        markChanged(attendeeVersions, event, version);
+      }
+      for (Event event : added) {
+        events.add(event);
+        markChanged(attendeeVersions, event, version);
+      }
+
+      CalendarSnapshot next = new CalendarSnapshot(version, events, attendeeVersions);
+      snapshot.set(next);
+      return next;
+    }
+  }
+
+  /**
+   * Returns a new, empty staging area for events that are to be added to this repository together.
+   */
+  public Staging stage() {
+    return new Staging();
+  }
+
+  /**
+   * Events waiting to be added to a {@link CalendarRepository}. Batches can be added to it at no
+   * more cost than keeping them, and none of them are visible to readers until {@link #publish()}
+   * adds them all in one snapshot. A staging area is for a single writer and isn't thread-safe.
+   */
+  public final class Staging {
+    private List<Event> events = new ArrayList<>();
+
+    private Staging() {}
+
+    /**
+     * Adds {@code batch} to the events to be published. The staging area copies the events out, so
+     * the caller may reuse the collection.
+     */
+    public void add(Collection<Event> batch) {
+      if (events == null) {
+        throw new IllegalStateException("already published");
+      }
+      events.addAll(batch);
+    }
+
+    /**
+     * Returns how many events are waiting to be published.
+     */
+    public int size() {
+      return events == null ? 0 : events.size();
+    }
+
+    /**
+     * Adds every staged event to the repository in one new snapshot, which is returned. A staging
+     * area can only be published once.
+     */
+    public CalendarSnapshot publish() {
+      if (events == null) {
+        throw new IllegalStateException("already published");
+      }
+      List<Event> staged = events;
+      events = null;
+      return addEvents(staged);
+    }
+  }
+
+  private static void markChanged(Map<String, Long> attendeeVersions, Event event, long version) {
+    for (String attendee : event.getAttendees()) {
+      attendeeVersions.put(attendee, version);
+    }
+  }
+}
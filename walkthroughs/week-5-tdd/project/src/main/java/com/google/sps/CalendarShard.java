@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One partition of a calendar: the events of the attendees whose names hash to it, with an index
+ * of its own. A shard answers with the merged busy times of a group of its attendees, so what it
+ * sends back is at most one interval per free gap, however many events the group has. Shards can
+ * be called directly or through {@link #serve}, which reads a request from a stream and writes the
+ * answer to another, so that they can run in a process of their own. Shards are read-only and safe
+ * to share between threads.
+ */
+public final class CalendarShard {
+  private final EventIndex index;
+
+  /**
+   * Creates a shard holding {@code events}. Must be non-null.
+   */
+  public CalendarShard(Collection<Event> events) {
+    this.index = new EventIndex(events);
+  }
+
+  /**
+   * Returns which of {@code shards} shards holds the events of {@code attendee}.
+   */
+  public static int shardOf(String attendee, int shards) {
+    return Math.floorMod(attendee.hashCode(), shards);
+  }
+
+  /**
+   * Splits {@code events} into {@code shards} shards by attendee. An event goes to every shard
+   * that holds one of its attendees.
+   */
+  public static List<CalendarShard> partition(Collection<Event> events, int shards) {
+    if (shards <= 0) {
+      throw new IllegalArgumentException("shards must be positive");
+    }
+
+    List<List<Event>> eventsByShard = new ArrayList<>(shards);
+    for (int i = 0; i < shards; i++) {
+      eventsByShard.add(new ArrayList<>());
+    }
+    BitSet owners = new BitSet(shards);
+    for (Event event : events) {
+      owners.clear();
+      for (String attendee : event.getAttendees()) {
+        owners.set(shardOf(attendee, shards));
+      }
+      for (int i = owners.nextSetBit(0); i >= 0; i = owners.nextSetBit(i + 1)) {
+        eventsByShard.get(i).add(event);
+      }
+    }
+
+    List<CalendarShard> partitions = new ArrayList<>(shards);
+    for (List<Event> shardEvents : eventsByShard) {
+      partitions.add(new CalendarShard(shardEvents));
+    }
+    return partitions;
+  }
+
+  /**
+   * Returns the times at which any of {@code attendees} is busy inside {@code window}, merged and
+   * clipped to the window.
+   */
+  public PackedIntervalSet busyTimes(Collection<String> attendees, TimeRange window) {
+    PackedIntervalSet busyTimes = new PackedIntervalSet();
+    for (String attendee : attendees) {
+      for (TimeRange busy : index.getBusyTimes(attendee, window)) {
+        busyTimes.add(Math.max(busy.start(), window.start()), Math.min(busy.end(), window.end()));
+      }
+    }
+    busyTimes.merge();
+    return busyTimes;
+  }
+
+  /**
+   * Reads one request from {@code in} and writes its answer to {@code out}.
+   */
+  public void serve(DataInput in, DataOutput out) throws IOException {
+    ShardProtocol.Request request = ShardProtocol.readRequest(in);
+    PackedIntervalSet[] answer = new PackedIntervalSet[request.groups.size()];
+    for (int i = 0; i < answer.length; i++) {
+      answer[i] = busyTimes(request.groups.get(i), request.window);
+    }
+    ShardProtocol.writeResponse(out, answer);
+  }
+}
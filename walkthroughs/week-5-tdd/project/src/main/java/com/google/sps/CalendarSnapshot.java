@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The events of a {@link CalendarRepository} at one version, together with the index that queries
+ * read from. Snapshots never change, so any number of threads can query one without locking.
+ */
+public final class CalendarSnapshot implements VersionedCalendarView {
+  private final long version;
+  private final List<Event> events;
+  private final EventIndex index;
+  private final Map<String, Long> attendeeVersions;
+
+  /**
+   * Creates a snapshot. The caller hands over the list and the map, and must not change them
+   * afterwards.
+   */
+  CalendarSnapshot(long version, List<Event> events, Map<String, Long> attendeeVersions) {
+    this.version = version;
+    this.events = Collections.unmodifiableList(events);
+    this.index = new EventIndex(events);
+    this.attendeeVersions = attendeeVersions;
+  }
+
+  /**
+   * Returns a read-only list of every event in the snapshot.
+   */
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the index over the events of the snapshot.
+   */
+  public EventIndex getIndex() {
+    return index;
+  }
+
+  @Override
+  public int estimateBusyTimes(String attendee) {
+    return index.estimateBusyTimes(attendee);
+  }
+
+  @Override
+  public Collection<TimeRange> getBusyTimes(String attendee) {
+    return index.getBusyTimes(attendee);
+  }
+
+  @Override
+  public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+    return index.getBusyTimes(attendee, window);
+  }
+
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public long getVersion(String attendee) {
+    Long attendeeVersion = attendeeVersions.get(attendee);
+    return attendeeVersion == null ? 0 : attendeeVersion;
+  }
+
+  /**
+   * Returns a copy of the version in which each attendee last changed, to build the next snapshot
+   * from.
+   */
+  Map<String, Long> copyAttendeeVersions() {
+    return new HashMap<>(attendeeVersions);
+  }
+}
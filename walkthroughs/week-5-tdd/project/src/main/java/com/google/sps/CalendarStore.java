@@ -0,0 +1,244 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A calendar that events can be added to and removed from. For every attendee the store keeps the
+ * merged busy intervals up to date as events change, so queries read them directly instead of
+ * sorting and merging every event again. Every change bumps a version number, which is also
+ * tracked per attendee so that results computed from the store can tell whether they are stale.
+ * Stores are not thread-safe.
+ */
+public final class CalendarStore implements VersionedCalendarView {
+  private final Map<Event, Integer> eventCounts = new HashMap<>();
+  private final Map<String, AttendeeSchedule> schedules = new HashMap<>();
+
+  // The version of the store, and the version in which each attendee's events last changed.
+  private long version;
+  private final Map<String, Long> attendeeVersions = new HashMap<>();
+
+  public CalendarStore() {}
+
+  /**
+   * Creates a store holding {@code events}. Must be non-null.
+   */
+  public CalendarStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    for (Event event : events) {
+      addEvent(event);
+    }
+  }
+
+  /**
+   * Adds an event to the calendar. Adding the same event twice means it has to be removed twice.
+   * Takes O(log n) time per attendee, plus the number of busy intervals the event joins together.
+   */
+  public void addEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    eventCounts.merge(event, 1, Integer::sum);
+    version++;
+    for (String attendee : event.getAttendees()) {
+      attendeeVersions.put(attendee, version);
+      AttendeeSchedule schedule = schedules.get(attendee);
+      if (schedule == null) {
+        schedule = new AttendeeSchedule();
+        schedules.put(attendee, schedule);
+      }
+      schedule.add(event.getWhen());
+    }
+  }
+
+  /**
+   * Removes one copy of an event from the calendar. Returns false if the calendar doesn't have the
+   * event. Takes O(log n) time per attendee, plus the number of events that overlapped the removed
+   * one.
+   */
+  public boolean removeEvent(Event event) {
+    Integer count = eventCounts.get(event);
+    if (count == null) {
+      return false;
+    }
+
+    if (count == 1) {
+      eventCounts.remove(event);
+    } else {
+      eventCounts.put(event, count - 1);
+    }
+    version++;
+    for (String attendee : event.getAttendees()) {
+      attendeeVersions.put(attendee, version);
+      AttendeeSchedule schedule = schedules.get(attendee);
+      schedule.remove(event.getWhen());
+      if (schedule.isEmpty()) {
+        schedules.remove(attendee);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the busy times of {@code attendee} as a read-only, ascending list of intervals that
+   * neither overlap nor touch.
+   */
+  @Override
+  public Collection<TimeRange> getBusyTimes(String attendee) {
+    AttendeeSchedule schedule = schedules.get(attendee);
+    if (schedule == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableCollection(schedule.merged.values());
+  }
+
+  /**
+   * Returns the busy intervals of {@code attendee} that overlap {@code window} as a read-only view.
+   * Finding the first interval takes O(log n) time; the rest are read as they are iterated over.
+   */
+  @Override
+  public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+    AttendeeSchedule schedule = schedules.get(attendee);
+    if (schedule == null || window.duration() <= 0) {
+      return Collections.emptyList();
+    }
+
+    // The interval starting before the window may still reach into it.
+    Map.Entry<Integer, TimeRange> before = schedule.merged.floorEntry(window.start());
+    int from = before != null && before.getValue().end() > window.start()
+        ? before.getKey() : window.start();
+    return Collections.unmodifiableCollection(
+        schedule.merged.subMap(from, true, window.end(), false).values());
+  }
+
+  @Override
+  public int estimateBusyTimes(String attendee) {
+    AttendeeSchedule schedule = schedules.get(attendee);
+    return schedule == null ? 0 : schedule.merged.size();
+  }
+
+  /**
+   * Returns the number of events in the calendar.
+   */
+  public int size() {
+    int size = 0;
+    for (int count : eventCounts.values()) {
+      size += count;
+    }
+    return size;
+  }
+
+  /**
+   * Returns the version of the calendar. It goes up every time an event is added or removed.
+   */
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the version in which an event of {@code attendee} was last added or removed, or 0 if
+   * the attendee never had any.
+   */
+  @Override
+  public long getVersion(String attendee) {
+    Long attendeeVersion = attendeeVersions.get(attendee);
+    return attendeeVersion == null ? 0 : attendeeVersion;
+  }
+
+  /**
+   * The events of one attendee, both as they were added and merged into disjoint busy intervals.
+   */
+  private static final class AttendeeSchedule {
+    private static final Comparator<TimeRange> ORDER_BY_START_THEN_END =
+        TimeRange.ORDER_BY_START.thenComparing(TimeRange.ORDER_BY_END);
+
+    // How many times each event time was added. Needed to rebuild a busy interval when one of the
+    // events in it goes away.
+    private final TreeMap<TimeRange, Integer> added = new TreeMap<>(ORDER_BY_START_THEN_END);
+
+    // The merged busy intervals, keyed by their start.
+    private final TreeMap<Integer, TimeRange> merged = new TreeMap<>();
+
+    void add(TimeRange range) {
+      added.merge(range, 1, Integer::sum);
+      // An event without a duration doesn't keep anybody busy.
+      if (range.duration() > 0) {
+        mergeIn(range.start(), range.end());
+      }
+    }
+
+    void remove(TimeRange range) {
+      Integer count = added.get(range);
+      if (count == 1) {
+        added.remove(range);
+      } else {
+        added.put(range, count - 1);
+      }
+      if (range.duration() <= 0) {
+        return;
+      }
+
+      // Take apart the busy interval the range was part of, then merge the events that are left
+      // in it back together. They all start inside of the interval.
+      TimeRange interval = merged.remove(merged.floorKey(range.start()));
+      Iterator<TimeRange> events =
+          added.tailMap(TimeRange.fromStartDuration(interval.start(), 0), true).keySet().iterator();
+      while (events.hasNext()) {
+        TimeRange event = events.next();
+        if (event.start() >= interval.end()) {
+          break;
+        }
+        if (event.duration() > 0) {
+          mergeIn(event.start(), event.end());
+        }
+      }
+    }
+
+    boolean isEmpty() {
+      return added.isEmpty();
+    }
+
+    // Adds [start, end) to the merged intervals, joining it with every interval it overlaps or
+    // touches.
+    private void mergeIn(int start, int end) {
+      Map.Entry<Integer, TimeRange> before = merged.floorEntry(start);
+      if (before != null && before.getValue().end() >= start) {
+        start = before.getKey();
+        end = Math.max(end, before.getValue().end());
+        merged.remove(before.getKey());
+      }
+
+      Map.Entry<Integer, TimeRange> after = merged.ceilingEntry(start);
+      while (after != null && after.getKey() <= end) {
+        end = Math.max(end, after.getValue().end());
+        merged.remove(after.getKey());
+        after = merged.ceilingEntry(start);
+      }
+      merged.put(start, TimeRange.fromStartEnd(start, end, false));
+    }
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a meeting query needs to know about a calendar: when each person is busy.
+ */
+public interface CalendarView {
+  /**
+   * Returns the times at which {@code attendee} is busy. The ranges may overlap and are in no
+   * particular order. People the calendar doesn't know about are never busy.
+   */
+  Collection<TimeRange> getBusyTimes(String attendee);
+
+  /**
+   * Returns the times at which {@code attendee} is busy that overlap {@code window}, ordered by
+   * start. Implementations should only visit the part of the calendar inside the window, and may
+   * compute the ranges lazily while they are iterated over.
+   */
+  default Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+    List<TimeRange> busyTimes = new ArrayList<>();
+    for (TimeRange busy : getBusyTimes(attendee)) {
+      if (busy.start() < window.end() && busy.end() > window.start()) {
+        busyTimes.add(busy);
+      }
+    }
+    Collections.sort(busyTimes, TimeRange.ORDER_BY_START);
+    return busyTimes;
+  }
+
+  /**
+   * Returns roughly how many busy times {@code attendee} has, for deciding whose to read first. It
+   * must be cheap to work out. Calendars that can't tell say 1 for everybody.
+   */
+  default int estimateBusyTimes(String attendee) {
+    return 1;
+  }
+}
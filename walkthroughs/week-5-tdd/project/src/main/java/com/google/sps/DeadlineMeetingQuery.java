@@ -0,0 +1,177 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Finds the same meeting times as {@link FindMeetingQuery}, but gives up reading busy times once a
+ * deadline passes. The required attendees are checked before the optional ones, and within each
+ * group the people with the fewest busy times go first, so that as many people as possible are
+ * checked in time. When the deadline passes, the answer holds the times that suit everybody
+ * checked so far, says that it is incomplete, and lists who wasn't checked.
+ *
+ * <p>The clock is checked before each attendee, and again every {@value #CLOCK_CHECK_INTERVAL} busy
+ * times while an attendee is read, since calendars that work their busy times out as they are read
+ * can take a long time over one attendee. An attendee whose read is cut short counts as unchecked,
+ * and none of their busy times are used. So a query runs past its deadline by at most as long as
+ * it takes to start a read or to produce that many busy times.
+ */
+public final class DeadlineMeetingQuery {
+  // How many busy times of one attendee are read between checks of the clock.
+  static final int CLOCK_CHECK_INTERVAL = 64;
+
+  private final LongSupplier nanoClock;
+
+  public DeadlineMeetingQuery() {
+    this(System::nanoTime);
+  }
+
+  // For tests, which need to decide when time runs out.
+  DeadlineMeetingQuery(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Meeting times, and whether every attendee was checked to find them.
+   */
+  public static final class Result {
+    private final List<TimeRange> slots;
+    private final boolean complete;
+    @SerializedName("unchecked_attendees")
+    private final List<String> uncheckedAttendees;
+
+    private Result(List<TimeRange> slots, List<String> uncheckedAttendees) {
+      this.slots = slots;
+      this.complete = uncheckedAttendees.isEmpty();
+      this.uncheckedAttendees = uncheckedAttendees;
+    }
+
+    /**
+     * Returns a complete result holding {@code slots}, such as an answer that was already known.
+     */
+    public static Result complete(Collection<TimeRange> slots) {
+      return new Result(new ArrayList<>(slots), Collections.emptyList());
+    }
+
+    /**
+     * Returns a read-only list of the meeting times that suit every checked attendee.
+     */
+    public List<TimeRange> getSlots() {
+      return Collections.unmodifiableList(slots);
+    }
+
+    /**
+     * Returns true if every attendee was checked before the deadline.
+     */
+    public boolean isComplete() {
+      return complete;
+    }
+
+    /**
+     * Returns a read-only list of the attendees whose busy times weren't read in time.
+     */
+    public List<String> getUncheckedAttendees() {
+      return Collections.unmodifiableList(uncheckedAttendees);
+    }
+  }
+
+  /**
+   * Finds the meeting times of the day within the time budget of the request, counted from now.
+   */
+  public Result query(CalendarView calendar, MeetingRequest request) {
+    long deadlineNanos = deadlineFor(request, nanoClock.getAsLong());
+    return query(calendar, request, TimeRange.WHOLE_DAY, deadlineNanos);
+  }
+
+  /**
+   * Returns the {@link System#nanoTime()} by which a request that arrived at {@code arrivalNanos}
+   * has to be answered, or {@code Long.MAX_VALUE} if it has no time budget.
+   */
+  public static long deadlineFor(MeetingRequest request, long arrivalNanos) {
+    if (request.getTimeBudgetMillis() <= 0) {
+      return Long.MAX_VALUE;
+    }
+    return arrivalNanos + TimeUnit.MILLISECONDS.toNanos(request.getTimeBudgetMillis());
+  }
+
+  /**
+   * Finds the meeting times inside {@code window}, reading no more busy times once
+   * {@link System#nanoTime()} reaches {@code deadlineNanos}.
+   */
+  public Result query(
+      CalendarView calendar, MeetingRequest request, TimeRange window, long deadlineNanos) {
+    List<String> required = byCost(calendar, request.getAttendees());
+    List<String> optional = byCost(calendar, request.getOptionalAttendees());
+    PackedIntervalSet requiredBusy = new PackedIntervalSet();
+    PackedIntervalSet optionalBusy = new PackedIntervalSet();
+
+    int checkedRequired = read(calendar, required, window, deadlineNanos, requiredBusy);
+    int checkedOptional = checkedRequired < required.size()
+        ? 0 : read(calendar, optional, window, deadlineNanos, optionalBusy);
+
+    List<String> unchecked = new ArrayList<>(required.subList(checkedRequired, required.size()));
+    unchecked.addAll(optional.subList(checkedOptional, optional.size()));
+    List<TimeRange> slots = new ArrayList<>(
+        FindMeetingQuery.query(requiredBusy, optionalBusy, request, window));
+    return new Result(slots, unchecked);
+  }
+
+  // Adds the busy times of attendees to busy in order until the deadline. Returns how many of
+  // them were read in full; the busy times of an attendee whose read was cut short are left out.
+  private int read(CalendarView calendar, List<String> attendees, TimeRange window,
+      long deadlineNanos, PackedIntervalSet busy) {
+    PackedIntervalSet attendeeBusy = new PackedIntervalSet();
+    for (int i = 0; i < attendees.size(); i++) {
+      if (expired(deadlineNanos)) {
+        return i;
+      }
+      attendeeBusy.clear();
+      int ranges = 0;
+      for (TimeRange range : calendar.getBusyTimes(attendees.get(i), window)) {
+        attendeeBusy.add(range);
+        if (++ranges % CLOCK_CHECK_INTERVAL == 0 && expired(deadlineNanos)) {
+          return i;
+        }
+      }
+      busy.addAll(attendeeBusy);
+    }
+    return attendees.size();
+  }
+
+  private boolean expired(long deadlineNanos) {
+    // Subtracting keeps the comparison right when nanoTime wraps around.
+    return deadlineNanos != Long.MAX_VALUE && nanoClock.getAsLong() - deadlineNanos >= 0;
+  }
+
+  private static List<String> byCost(CalendarView calendar, Collection<String> attendees) {
+    Map<String, Integer> costs = new HashMap<>();
+    for (String attendee : attendees) {
+      costs.put(attendee, calendar.estimateBusyTimes(attendee));
+    }
+    List<String> sorted = new ArrayList<>(attendees);
+    Collections.sort(sorted, Comparator.comparing(costs::get));
+    return sorted;
+  }
+}
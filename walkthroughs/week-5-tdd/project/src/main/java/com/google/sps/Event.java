@@ -14,9 +14,8 @@
 
 package com.google.sps;
 
+import com.google.gson.annotations.JsonAdapter;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -26,7 +25,8 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+  @JsonAdapter(AttendeeSet.GsonAdapter.class)
+  private final AttendeeSet attendees;
 
   /**
    * Creates a new event.
@@ -50,7 +50,7 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    this.attendees = AttendeeSet.of(attendees);
   }
 
   /**
@@ -71,9 +71,15 @@ public final class Event {
    * Returns a read-only set of required attendees for this event.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
-    // internal data.
-    return Collections.unmodifiableSet(attendees);
+    // The attendee set is read-only, so the caller can't change our internal data.
+    return attendees;
+  }
+
+  /**
+   * Returns the attendees of this event as ids, for comparing them with other attendee sets.
+   */
+  public AttendeeSet getAttendeeSet() {
+    return attendees;
   }
 
   @Override
@@ -89,8 +95,7 @@ public final class Event {
   }
 
   private static boolean equals(Event a, Event b) {
-    // {@code attendees} must be a set for equals to work as expected. According to the {@code Set}
-    // interface documentation, equals will check for set-equality across all set implementations.
+    // Attendee sets are equal when they hold the same ids.
     return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
   }
 }
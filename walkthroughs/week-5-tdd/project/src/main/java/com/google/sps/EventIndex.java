@@ -0,0 +1,164 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An inverted index from each attendee to the events they attend. Building the index touches every
+ * event once; after that, looking up a person only touches that person's events. Indexes are
+ * read-only and safe to share between threads.
+ */
+public final class EventIndex implements CalendarView {
+  private static final Comparator<Event> ORDER_BY_START = new Comparator<Event>() {
+    @Override
+    public int compare(Event a, Event b) {
+      return TimeRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen());
+    }
+  };
+
+  private final Map<String, List<Event>> eventsByAttendee = new HashMap<>();
+
+  // For each attendee, the latest end among their first i + 1 events. It never decreases, so a
+  // binary search finds the first event that can reach into a window.
+  private final Map<String, int[]> latestEndByAttendee = new HashMap<>();
+
+  /**
+   * Creates an index over {@code events}. Must be non-null.
+   */
+  public EventIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        List<Event> attendeeEvents = eventsByAttendee.get(attendee);
+        if (attendeeEvents == null) {
+          attendeeEvents = new ArrayList<>();
+          eventsByAttendee.put(attendee, attendeeEvents);
+        }
+        attendeeEvents.add(event);
+      }
+    }
+
+    for (Map.Entry<String, List<Event>> entry : eventsByAttendee.entrySet()) {
+      List<Event> attendeeEvents = entry.getValue();
+      Collections.sort(attendeeEvents, ORDER_BY_START);
+      int[] latestEnd = new int[attendeeEvents.size()];
+      for (int i = 0; i < latestEnd.length; i++) {
+        int end = attendeeEvents.get(i).getWhen().end();
+        latestEnd[i] = i == 0 ? end : Math.max(latestEnd[i - 1], end);
+      }
+      latestEndByAttendee.put(entry.getKey(), latestEnd);
+    }
+  }
+
+  /**
+   * Returns a read-only list of the events that {@code attendee} attends, ordered by start. The
+   * list is empty for people the index doesn't know about.
+   */
+  public List<Event> getEvents(String attendee) {
+    List<Event> attendeeEvents = eventsByAttendee.get(attendee);
+    if (attendeeEvents == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(attendeeEvents);
+  }
+
+  @Override
+  public int estimateBusyTimes(String attendee) {
+    return getEvents(attendee).size();
+  }
+
+  @Override
+  public Collection<TimeRange> getBusyTimes(String attendee) {
+    List<Event> attendeeEvents = getEvents(attendee);
+    List<TimeRange> busyTimes = new ArrayList<>(attendeeEvents.size());
+    for (Event event : attendeeEvents) {
+      busyTimes.add(event.getWhen());
+    }
+    return busyTimes;
+  }
+
+  @Override
+  public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+    List<Event> attendeeEvents = getEvents(attendee);
+    if (attendeeEvents.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    // Skip every event that ends before the window starts.
+    int[] latestEnd = latestEndByAttendee.get(attendee);
+    int low = 0;
+    int high = latestEnd.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (latestEnd[middle] > window.start()) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    int first = low;
+    return () -> new Iterator<TimeRange>() {
+      private int next = advance(first);
+
+      @Override
+      public boolean hasNext() {
+        return next < attendeeEvents.size();
+      }
+
+      @Override
+      public TimeRange next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        TimeRange busy = attendeeEvents.get(next).getWhen();
+        next = advance(next + 1);
+        return busy;
+      }
+
+      // Returns the index of the next event at or after i that overlaps the window.
+      private int advance(int i) {
+        for (; i < attendeeEvents.size(); i++) {
+          TimeRange busy = attendeeEvents.get(i).getWhen();
+          if (busy.start() >= window.end()) {
+            break;
+          }
+          if (busy.end() > window.start()) {
+            return i;
+          }
+        }
+        return attendeeEvents.size();
+      }
+    };
+  }
+
+  /**
+   * Returns a read-only set of everyone who attends at least one indexed event.
+   */
+  public Collection<String> getAttendees() {
+    return Collections.unmodifiableSet(eventsByAttendee.keySet());
+  }
+}
@@ -15,98 +15,288 @@
 package com.google.sps;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
 
 public final class FindMeetingQuery {
 
+  // The busy times of the required and the optional attendees, and the stats of the query. They
+  // are kept per thread and reused, so a query only allocates the TimeRanges it returns.
+  private static final ThreadLocal<BusyTimes> BUSY_TIMES = ThreadLocal.withInitial(BusyTimes::new);
+
+  // Suggestions are tried at every quarter hour, and at the edges of every free slot.
+  private static final int SUGGESTION_STEP = 15;
+
+  private final HorizonMeetingQuery horizonMeetingQuery = new HorizonMeetingQuery();
+
+  // Where the free time of hot attendee groups is kept, or null to always work it out.
+  private final GroupViews groupViews;
+
+  // Where the stats of every query are added up, or null to not keep them.
+  private final QueryMetrics metrics;
+
+  public FindMeetingQuery() {
+    this(null, null);
+  }
+
+  /**
+   * Creates a query that answers requests for the day from {@code groupViews} when their group of
+   * attendees has a view, and with a view builds them once the group gets hot. Only calendars with
+   * versions can be answered from views.
+   */
+  public FindMeetingQuery(GroupViews groupViews) {
+    this(groupViews, null);
+  }
+
+  /**
+   * Same as {@link #FindMeetingQuery(GroupViews)}, and adds the stats of every query to
+   * {@code metrics}. Either may be null.
+   */
+  public FindMeetingQuery(GroupViews groupViews, QueryMetrics metrics) {
+    this.groupViews = groupViews;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the stats of the last query that ran on this thread. Every query starts them over,
+   * whether it is answered from a group view, stops at a limit or merges busy times. The same
+   * object is filled in again by the next query, so copy it to keep it.
+   */
+  public static QueryStats lastQueryStats() {
+    return BUSY_TIMES.get().stats;
+  }
+
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
-    Collection<String> attendeesInRequest = request.getAttendees();
-    Collection<String> optionalAttendees = request.getOptionalAttendees();
-    ArrayList<TimeRange> eventsTimeRangeList = new ArrayList<>();
-    ArrayList<TimeRange> optionalsEventTimeRangeList = new ArrayList<>();
-    
-    // Returns no options if duration is longer than a day.
-    if(request.getDuration() >  TimeRange.WHOLE_DAY.duration()) {
-        return Arrays.asList();
-    }
-    
+    AttendeeSet attendeesInRequest = request.getAttendeeSet();
+    AttendeeSet optionalAttendees = request.getOptionalAttendeeSet();
+    BusyTimes busyTimes = BUSY_TIMES.get();
+    busyTimes.clear();
+    long collectStart = System.nanoTime();
+
     // Adds TimeRanges for events that required attendees and optional attendees will be attending.
+    // The attendee sets are sorted ids, so matching them doesn't hash any names.
+    int matches = 0;
     for (Event event : events) {
-        for(String attendee : event.getAttendees()) {
-            if(attendeesInRequest.contains(attendee)) {
-                eventsTimeRangeList.add(event.getWhen());
-            }
-            if(optionalAttendees.contains(attendee)) {
-                optionalsEventTimeRangeList.add(event.getWhen());
-            }
-        }
+      AttendeeSet attendees = event.getAttendeeSet();
+      boolean matched = false;
+      if (attendees.intersects(attendeesInRequest)) {
+        busyTimes.required.add(event.getWhen());
+        matched = true;
+      }
+      if (attendees.intersects(optionalAttendees)) {
+        busyTimes.optional.add(event.getWhen());
+        matched = true;
+      }
+      matches += matched ? 1 : 0;
     }
+    busyTimes.stats.addCollect(events.size(), matches, System.nanoTime() - collectStart);
+    return record(findMeetingTimes(busyTimes, request, searchWindow(TimeRange.WHOLE_DAY, request)));
+  }
+
+  /**
+   * Same as {@link #query(Collection, MeetingRequest)}, but only looks up the busy times of the
+   * people in the request instead of scanning every event.
+   */
+  public Collection<TimeRange> query(CalendarView calendar, MeetingRequest request) {
+    return query(calendar, request, TimeRange.WHOLE_DAY);
+  }
 
-    // If no required or optional attendees have any other events, return whole day.
-    if(eventsTimeRangeList.size() == 0 && optionalsEventTimeRangeList.size() == 0) {
-        return Arrays.asList(TimeRange.WHOLE_DAY);
+  /**
+   * Finds the meeting times inside {@code window} instead of the day. Only the busy times that
+   * overlap the window are read, so calendars that work them out on demand, such as a
+   * {@link RecurringCalendar}, never look past it. When the request has a limit, the busy times are
+   * read in order and the search stops once enough meeting times are found.
+   */
+  public Collection<TimeRange> query(
+      CalendarView calendar, MeetingRequest request, TimeRange window) {
+    // Every way of answering starts from empty stats, so that lastQueryStats() never reports an
+    // earlier query on this thread.
+    QueryStats stats = BUSY_TIMES.get().clear();
+    if (groupViews != null && calendar instanceof VersionedCalendarView
+        && window.equals(TimeRange.WHOLE_DAY) && request.getEarliestStart() <= 0) {
+      long start = System.nanoTime();
+      Collection<TimeRange> answer =
+          groupViews.query((VersionedCalendarView) calendar, request);
+      if (answer != null) {
+        stats.addSlotScan(System.nanoTime() - start);
+        stats.setSlots(answer.size());
+        return record(answer);
+      }
     }
 
-    // Combine both optional and mandatory attendees and treat them as 'mandatory' so that we
-    // can check if there are any slots available for both grooups to attend
-    ArrayList<TimeRange> optionalAndMandatory = new ArrayList<>();
-    optionalAndMandatory.addAll(eventsTimeRangeList);
-    optionalAndMandatory.addAll(optionalsEventTimeRangeList);
-    Collections.sort(optionalAndMandatory, TimeRange.ORDER_BY_START);
-    ArrayList<TimeRange> slotsForBothGroups = findSlots(optionalAndMandatory, request);
-
-    // Return list of TimeRanges for slots that both groups can attend, if there are any. Else,
-    // proceed onwards and process slots for mandatory attendees only.
-    if(slotsForBothGroups.size() != 0) {
-        return slotsForBothGroups;
-    }    
-
-    // Store available TimeRange slots for required attendees, and return them if there are any.
-    ArrayList<TimeRange> mandatorySlots = new ArrayList<>();
-    if(eventsTimeRangeList.size() > 0) {
-        mandatorySlots = findSlots(eventsTimeRangeList, request);
+    TimeRange searched = searchWindow(window, request);
+    if (request.getLimit() > 0) {
+      // The busy times are read as the slots are found, so it all counts as the slot scan.
+      long start = System.nanoTime();
+      Collection<TimeRange> answer =
+          horizonMeetingQuery.query(calendar, request, searched, request.getLimit());
+      stats.addSlotScan(System.nanoTime() - start);
+      stats.setSlots(answer.size());
+      return record(answer);
+    }
+    return record(findMeetingTimes(readBusyTimes(calendar, request, window), request, searched));
+  }
+
+  // Adds the stats of the query that just ran on this thread to the metrics.
+  private Collection<TimeRange> record(Collection<TimeRange> answer) {
+    if (metrics != null) {
+      metrics.record(BUSY_TIMES.get().stats);
+    }
+    return answer;
+  }
+
+  /**
+   * Returns up to {@code count} meeting times inside {@code window} that best suit the preferences
+   * of the request, best first. The times are picked from the same free slots that
+   * {@link #query(CalendarView, MeetingRequest, TimeRange)} finds, so the preferences never make a
+   * time that doesn't work for the attendees win. Times with equal scores are ordered by start.
+   */
+  public List<MeetingSuggestion> suggest(
+      CalendarView calendar, MeetingRequest request, TimeRange window, int count) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("count must be positive");
     }
-    if(mandatorySlots.size() > 0) return mandatorySlots;
 
-    // Store available TimeRange slots for optional attendees, and return them if there are any.
-    // If there are none, this function returns an empty list.
-    ArrayList<TimeRange> optionalsSlots = new ArrayList<>();
-    if(optionalsEventTimeRangeList.size() > 0) {       
-        optionalsSlots = findSlots(optionalsEventTimeRangeList, request);
+    TimeRange searched = searchWindow(window, request);
+    BusyTimes busyTimes = readBusyTimes(calendar, request, window);
+    PackedIntervalSet slots = pickSlots(busyTimes, request, searched);
+    SlotScorer scorer = new SlotScorer(request);
+    int duration = (int) request.getDuration();
+
+    // The best suggestions so far, worst first, so the one to drop is always at the head.
+    PriorityQueue<MeetingSuggestion> best =
+        new PriorityQueue<>(count, MeetingSuggestion.WORST_FIRST);
+    for (int i = 0; i < slots.size(); i++) {
+      int slotStart = slots.start(i);
+      int slotEnd = slots.end(i);
+      boolean afterBusy = slotStart > searched.start();
+      boolean beforeBusy = slotEnd < searched.end();
+      int lastStart = slotEnd - duration;
+      for (int start = slotStart; start <= lastStart; start = nextCandidate(start, lastStart)) {
+        int score = scorer.score(slotStart, slotEnd, start, afterBusy, beforeBusy);
+        if (best.size() < count) {
+          best.add(new MeetingSuggestion(TimeRange.fromStartDuration(start, duration), score));
+        } else if (score > best.peek().getScore()) {
+          // Candidates come in order of start, so one that only ties is never better.
+          best.poll();
+          best.add(new MeetingSuggestion(TimeRange.fromStartDuration(start, duration), score));
+        }
+      }
     }
-    return optionalsSlots;
+
+    List<MeetingSuggestion> ranked = new ArrayList<>(best);
+    Collections.sort(ranked, Collections.reverseOrder(MeetingSuggestion.WORST_FIRST));
+    return ranked;
   }
 
-  // Finds available TimeRange slots for a potential meeting given a meeting request.
-  private ArrayList<TimeRange> findSlots(ArrayList<TimeRange> timeRangeList, MeetingRequest request) {
-    ArrayList<TimeRange> timeSlots = new ArrayList<>();
-    ArrayList<TimeRange> eventsTimeRangeList = mergeNestedOrOverlappingEvnets(timeRangeList);
+  // Returns the next start to try after start: the next quarter hour, or the last start of the
+  // slot if that comes first. Anything past lastStart ends the slot.
+  private static int nextCandidate(int start, int lastStart) {
+    int next = Math.floorDiv(start, SUGGESTION_STEP) * SUGGESTION_STEP + SUGGESTION_STEP;
+    return start < lastStart ? Math.min(next, lastStart) : next;
+  }
 
-    // Add START_OF_DAY slot if the first TimeRange is not START_OF_DAY.
-    if(eventsTimeRangeList.get(0).start() != TimeRange.START_OF_DAY) {
-        timeSlots.add( TimeRange.fromStartEnd(TimeRange.START_OF_DAY, eventsTimeRangeList.get(0)
-            .start(), false) );
+  // Reads the busy times of the people in the request that overlap the window.
+  private static BusyTimes readBusyTimes(
+      CalendarView calendar, MeetingRequest request, TimeRange window) {
+    BusyTimes busyTimes = BUSY_TIMES.get();
+    busyTimes.clear();
+    long collectStart = System.nanoTime();
+    int read = 0;
+    for (String attendee : request.getAttendees()) {
+      for (TimeRange busy : calendar.getBusyTimes(attendee, window)) {
+        busyTimes.required.add(busy);
+        read++;
+      }
+    }
+    for (String attendee : request.getOptionalAttendees()) {
+      for (TimeRange busy : calendar.getBusyTimes(attendee, window)) {
+        busyTimes.optional.add(busy);
+        read++;
+      }
     }
+    // Calendars only hand out the busy times of the people asked about, so every one matches.
+    busyTimes.stats.addCollect(read, read, System.nanoTime() - collectStart);
+    return busyTimes;
+  }
 
-    for(int i = 0; i < eventsTimeRangeList.size()-1; i++) {
-        int startTime = eventsTimeRangeList.get(i).end();
-        int endTime   = eventsTimeRangeList.get(i+1).start();
-        long timeBetweenEvents = (long) (endTime - startTime);
+  // Finds the meeting times given the busy times of the required and the optional attendees,
+  // merged or not, for callers that gather them from somewhere else than a calendar.
+  static Collection<TimeRange> query(PackedIntervalSet required, PackedIntervalSet optional,
+      MeetingRequest request, TimeRange window) {
+    BusyTimes busyTimes = BUSY_TIMES.get();
+    busyTimes.clear();
+    busyTimes.required.copyFrom(required);
+    busyTimes.optional.copyFrom(optional);
+    return findMeetingTimes(busyTimes, request, searchWindow(window, request));
+  }
+
+  // Returns the part of the window that meetings may start in, given the earliest start of the
+  // request.
+  private static TimeRange searchWindow(TimeRange window, MeetingRequest request) {
+    int start = Math.max(window.start(), Math.min(request.getEarliestStart(), window.end()));
+    return TimeRange.fromStartEnd(start, window.end(), false);
+  }
 
-        // Checks if there is time overlaps, and if there is enough time to last the given meeting duration.
-        if( (startTime < endTime) && (timeBetweenEvents >= request.getDuration()) ) {
-            timeSlots.add( TimeRange.fromStartEnd(startTime, endTime, false) ); 
-        }        
+  // Picks the meeting times given when the required and the optional attendees are busy.
+  private static Collection<TimeRange> findMeetingTimes(
+      BusyTimes busyTimes, MeetingRequest request, TimeRange window) {
+    PackedIntervalSet slots = pickSlots(busyTimes, request, window);
+    // Keep the earliest slots, as many as the request asks for.
+    if (request.getLimit() > 0) {
+      slots.keepFirst(request.getLimit());
     }
+    busyTimes.stats.setSlots(slots.size());
+    return slots.toTimeRanges();
+  }
 
-    // Add last TimeRange if the last TimeRange is not END_OF_DAY inclusive.
-    if( (timeSlots.size() > 0) && (eventsTimeRangeList.get(eventsTimeRangeList.size()-1).end() != TimeRange.END_OF_DAY+1) ) {
-        timeSlots.add( TimeRange.fromStartEnd(eventsTimeRangeList.get(eventsTimeRangeList.size()-1).end(),
-            TimeRange.END_OF_DAY, true) );
+  // Returns the free slots of the people who have to make it, reusing one of the busy time sets.
+  private static PackedIntervalSet pickSlots(
+      BusyTimes busyTimes, MeetingRequest request, TimeRange window) {
+    // Returns no options if duration is longer than the window.
+    if (request.getDuration() > window.duration()) {
+      busyTimes.everyone.clear();
+      return busyTimes.everyone;
     }
-    return timeSlots;
+
+    // Combine both optional and mandatory attendees and treat them as 'mandatory' so that we
+    // can check if there are any slots available for both groups to attend.
+    PackedIntervalSet slotsForBothGroups = busyTimes.everyone;
+    slotsForBothGroups.copyFrom(busyTimes.required);
+    slotsForBothGroups.addAll(busyTimes.optional);
+    findSlots(slotsForBothGroups, request, window, busyTimes.stats);
+
+    // Return the slots that both groups can attend, if there are any. When there are no required
+    // attendees the optional attendees are all we have to go on, so there is nothing to fall back
+    // to.
+    if (!slotsForBothGroups.isEmpty() || request.getAttendees().isEmpty()) {
+      return slotsForBothGroups;
+    }
+
+    // Otherwise only the required attendees have to be able to make it.
+    findSlots(busyTimes.required, request, window, busyTimes.stats);
+    return busyTimes.required;
+  }
+
+  // Turns the busy times into the slots available for a potential meeting given a meeting request.
+  // Every gap between busy times, including the ones at the start and end of the window, has to be
+  // at least as long as the meeting to be offered. Events without a duration were never added,
+  // since they don't keep anybody busy.
+  private static void findSlots(PackedIntervalSet busyTimes, MeetingRequest request,
+      TimeRange window, QueryStats stats) {
+    long sortStart = System.nanoTime();
+    busyTimes.sort();
+    long mergeStart = System.nanoTime();
+    int beforeMerge = busyTimes.size();
+    busyTimes.mergeSorted();
+    long scanStart = System.nanoTime();
+    stats.addSort(mergeStart - sortStart);
+    stats.addMerge(beforeMerge, busyTimes.size(), scanStart - mergeStart);
+    busyTimes.complement(window.start(), window.end());
+    busyTimes.removeShorterThan(request.getDuration());
+    stats.addSlotScan(System.nanoTime() - scanStart);
   }
 
   // Merges nested and overlapping events into one longer event.
@@ -115,11 +305,11 @@ public final class FindMeetingQuery {
 
     ArrayList<TimeRange> result = new ArrayList<>();
     for (TimeRange currentTime: allUnavailableTimes) {
-      
+
       // Add this TimeRange if it does not overlap with the previous one.
       if (result.isEmpty() || !currentTime.overlaps(result.get(result.size()-1))) {
         result.add(currentTime);
-      } else {  
+      } else {
         TimeRange lastTimeRangeInResult = result.get(result.size()-1);
         TimeRange mergedTimeRange = TimeRange.fromStartEnd(
             Math.min(lastTimeRangeInResult.start(), currentTime.start()),
@@ -132,4 +322,21 @@ public final class FindMeetingQuery {
     }
     return result;
   }
+
+  // Reusable busy times for one query.
+  private static final class BusyTimes {
+    final PackedIntervalSet required = new PackedIntervalSet();
+    final PackedIntervalSet optional = new PackedIntervalSet();
+    final PackedIntervalSet everyone = new PackedIntervalSet();
+    final QueryStats stats = new QueryStats();
+
+    // Empties the sets and resets the stats for the next query. Returns the stats.
+    QueryStats clear() {
+      required.clear();
+      optional.clear();
+      everyone.clear();
+      stats.reset();
+      return stats;
+    }
+  }
 }
@@ -0,0 +1,250 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the free time of the attendee groups that are queried most, so that
+ * {@link FindMeetingQuery} can answer them with a lookup instead of merging everyone's busy times
+ * again. A group is the required and the optional attendees of a request; once it has been asked
+ * about {@code hotThreshold} times, its free slots over the day are worked out and kept as a view.
+ *
+ * <p>A view remembers the version of the calendar it was built from. When one of its members'
+ * events change, only that view is rebuilt, from the busy times of its own members, the next time
+ * it is used. Views are kept in order of use; when there are more than {@code maxViews} of them or
+ * they take more than {@code maxBytes}, the ones used longest ago are dropped. Views can be used
+ * from several threads.
+ */
+public final class GroupViews {
+  // Roughly what a view costs besides its slots: the view, its key and their map entries.
+  private static final long VIEW_OVERHEAD_BYTES = 200;
+
+  private final int hotThreshold;
+  private final int maxViews;
+  private final long maxBytes;
+
+  // How many times each group was asked about, for the groups without a view. Bounded, so that a
+  // long tail of groups asked about once doesn't pile up.
+  private final Map<Key, Integer> queryCounts;
+  private final Map<Key, View> views = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong rebuilds = new AtomicLong();
+
+  /**
+   * Creates an empty set of views.
+   *
+   * @param hotThreshold How many queries make a group hot enough for a view. Must be positive.
+   * @param maxViews The most views to keep. Must be positive.
+   * @param maxBytes Roughly the most memory the views may take up. Must be positive.
+   */
+  public GroupViews(int hotThreshold, int maxViews, long maxBytes) {
+    if (hotThreshold <= 0 || maxViews <= 0 || maxBytes <= 0) {
+      throw new IllegalArgumentException("limits must be positive");
+    }
+
+    this.hotThreshold = hotThreshold;
+    this.maxViews = maxViews;
+    this.maxBytes = maxBytes;
+    int maxCounted = 16 * maxViews;
+    this.queryCounts = new LinkedHashMap<Key, Integer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Integer> eldest) {
+        return size() > maxCounted;
+      }
+    };
+  }
+
+  /**
+   * Returns the meeting times of the day for {@code request} from the view of its group, or null
+   * if the group has no view yet. Either way the query counts towards making the group hot.
+   */
+  Collection<TimeRange> query(VersionedCalendarView calendar, MeetingRequest request) {
+    Key key = new Key(request.getAttendeeSet(), request.getOptionalAttendeeSet());
+    View view;
+    synchronized (this) {
+      view = views.get(key);
+      if (view == null) {
+        int count = queryCounts.merge(key, 1, Integer::sum);
+        if (count < hotThreshold) {
+          return null;
+        }
+        queryCounts.remove(key);
+      }
+    }
+
+    if (view == null || !isCurrent(calendar, key, view)) {
+      if (view != null) {
+        rebuilds.incrementAndGet();
+      }
+      view = new View(calendar, key);
+      synchronized (this) {
+        View latest = views.get(key);
+        if (latest == null || latest.version <= view.version) {
+          put(key, view);
+        }
+      }
+    } else {
+      hits.incrementAndGet();
+    }
+    return view.slots(request);
+  }
+
+  /**
+   * Returns the number of views.
+   */
+  public synchronized int size() {
+    return views.size();
+  }
+
+  /**
+   * Returns roughly how much memory the views take up, in bytes.
+   */
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns how many queries were answered from a view that was up to date.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns how many times a view had to be rebuilt because one of its members' events changed.
+   */
+  public long getRebuilds() {
+    return rebuilds.get();
+  }
+
+  // Adds or replaces the view of a group, then drops the views used longest ago until the views
+  // fit. A view that doesn't fit on its own is dropped too.
+  private void put(Key key, View view) {
+    View old = views.put(key, view);
+    bytes += view.bytes - (old == null ? 0 : old.bytes);
+    Iterator<View> eldest = views.values().iterator();
+    while ((views.size() > maxViews || bytes > maxBytes) && eldest.hasNext()) {
+      bytes -= eldest.next().bytes;
+      eldest.remove();
+    }
+  }
+
+  // Returns true if the view shows the calendar as it is: the calendar is at least as new, and no
+  // member of the group had their events changed since.
+  private static boolean isCurrent(VersionedCalendarView calendar, Key key, View view) {
+    if (calendar.getVersion() < view.version) {
+      return false;
+    }
+    for (String attendee : key.attendees) {
+      if (calendar.getVersion(attendee) > view.version) {
+        return false;
+      }
+    }
+    for (String attendee : key.optionalAttendees) {
+      if (calendar.getVersion(attendee) > view.version) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The free slots of a group over the day, for everyone and for the required attendees alone.
+   */
+  private static final class View {
+    private final long version;
+    private final PackedIntervalSet freeForEveryone;
+    private final PackedIntervalSet freeForRequired;
+    private final long bytes;
+
+    View(VersionedCalendarView calendar, Key key) {
+      this.version = calendar.getVersion();
+      this.freeForRequired = freeTime(calendar, key.attendees, AttendeeSet.EMPTY);
+      this.freeForEveryone = key.optionalAttendees.isEmpty()
+          ? freeForRequired : freeTime(calendar, key.attendees, key.optionalAttendees);
+      long slots = freeForRequired.size()
+          + (freeForEveryone == freeForRequired ? 0 : freeForEveryone.size());
+      this.bytes = VIEW_OVERHEAD_BYTES + Long.BYTES * slots
+          + Integer.BYTES * (key.attendees.size() + key.optionalAttendees.size());
+    }
+
+    private static PackedIntervalSet freeTime(
+        CalendarView calendar, AttendeeSet attendees, AttendeeSet optionalAttendees) {
+      PackedIntervalSet busy = new PackedIntervalSet();
+      for (String attendee : attendees) {
+        for (TimeRange range : calendar.getBusyTimes(attendee, TimeRange.WHOLE_DAY)) {
+          busy.add(range);
+        }
+      }
+      for (String attendee : optionalAttendees) {
+        for (TimeRange range : calendar.getBusyTimes(attendee, TimeRange.WHOLE_DAY)) {
+          busy.add(range);
+        }
+      }
+      busy.merge();
+      busy.complement(TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.end());
+      return busy;
+    }
+
+    // Picks the slots long enough for the request, the same way FindMeetingQuery does.
+    Collection<TimeRange> slots(MeetingRequest request) {
+      PackedIntervalSet slots = new PackedIntervalSet(freeForEveryone.size());
+      slots.copyFrom(freeForEveryone);
+      slots.removeShorterThan(request.getDuration());
+      if (slots.isEmpty() && !request.getAttendees().isEmpty()) {
+        slots.copyFrom(freeForRequired);
+        slots.removeShorterThan(request.getDuration());
+      }
+      if (request.getLimit() > 0) {
+        slots.keepFirst(request.getLimit());
+      }
+      return slots.toTimeRanges();
+    }
+  }
+
+  /**
+   * The required and the optional attendees of a request.
+   */
+  private static final class Key {
+    private final AttendeeSet attendees;
+    private final AttendeeSet optionalAttendees;
+
+    Key(AttendeeSet attendees, AttendeeSet optionalAttendees) {
+      this.attendees = attendees;
+      this.optionalAttendees = optionalAttendees;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return attendees.equals(key.attendees) && optionalAttendees.equals(key.optionalAttendees);
+    }
+
+    @Override
+    public int hashCode() {
+      return attendees.hashCode() * 31 + optionalAttendees.hashCode();
+    }
+  }
+}
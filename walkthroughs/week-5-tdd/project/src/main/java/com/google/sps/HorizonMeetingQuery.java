@@ -0,0 +1,134 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds meeting times across a horizon of any length instead of a single day. Times are in minutes
+ * since the epoch (UTC), so events and meetings can cross midnight and last longer than a day.
+ *
+ * <p>The busy times of every attendee are walked in order of start time, starting at the beginning
+ * of the horizon, and the walk stops as soon as enough slots are found. Asking for the first few
+ * slots of a quarter only costs as much as the part of the calendar before those slots.
+ */
+public final class HorizonMeetingQuery {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  /**
+   * Returns the range covering {@code days} whole days starting at the beginning of
+   * {@code firstDay}, in minutes since the epoch.
+   */
+  public static TimeRange days(LocalDate firstDay, int days) {
+    return TimeRange.fromStartDuration(
+        Math.toIntExact(firstDay.toEpochDay() * MINUTES_PER_DAY), days * MINUTES_PER_DAY);
+  }
+
+  /**
+   * Returns up to {@code limit} of the earliest meeting times inside {@code horizon}, in ascending
+   * order. Optional attendees are handled like {@link FindMeetingQuery} does: the times that suit
+   * everyone are preferred, and the required attendees alone are used when there are none.
+   */
+  public Collection<TimeRange> query(
+      CalendarView calendar, MeetingRequest request, TimeRange horizon, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+
+    List<Iterable<TimeRange>> busyForEveryone = new ArrayList<>();
+    List<Iterable<TimeRange>> busyForRequired = new ArrayList<>();
+    for (String attendee : request.getAttendees()) {
+      Iterable<TimeRange> busy = calendar.getBusyTimes(attendee, horizon);
+      busyForEveryone.add(busy);
+      busyForRequired.add(busy);
+    }
+    for (String attendee : request.getOptionalAttendees()) {
+      busyForEveryone.add(calendar.getBusyTimes(attendee, horizon));
+    }
+
+    List<TimeRange> slotsForEveryone =
+        findSlots(busyForEveryone, horizon, request.getDuration(), limit);
+    if (!slotsForEveryone.isEmpty() || request.getAttendees().isEmpty()) {
+      return slotsForEveryone;
+    }
+    return findSlots(busyForRequired, horizon, request.getDuration(), limit);
+  }
+
+  // Merges the busy times of every attendee on the fly and collects the gaps between them.
+  private static List<TimeRange> findSlots(
+      List<Iterable<TimeRange>> busyTimes, TimeRange horizon, long duration, int limit) {
+    PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+    for (Iterable<TimeRange> busy : busyTimes) {
+      Cursor cursor = new Cursor(busy.iterator());
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+
+    List<TimeRange> slots = new ArrayList<>();
+    int freeSince = horizon.start();
+    while (!cursors.isEmpty() && slots.size() < limit && freeSince < horizon.end()) {
+      Cursor cursor = cursors.poll();
+      TimeRange busy = cursor.head;
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+
+      // An event without a duration doesn't keep anybody busy.
+      if (busy.duration() <= 0) {
+        continue;
+      }
+      addSlotIfLongEnough(slots, freeSince, Math.min(busy.start(), horizon.end()), duration);
+      freeSince = Math.max(freeSince, busy.end());
+    }
+    if (slots.size() < limit) {
+      addSlotIfLongEnough(slots, freeSince, horizon.end(), duration);
+    }
+    return slots;
+  }
+
+  private static void addSlotIfLongEnough(
+      List<TimeRange> slots, int start, int end, long duration) {
+    if (start < end && end - start >= duration) {
+      slots.add(TimeRange.fromStartEnd(start, end, false));
+    }
+  }
+
+  // The next busy time of one attendee.
+  private static final class Cursor implements Comparable<Cursor> {
+    private final Iterator<TimeRange> busyTimes;
+    private TimeRange head;
+
+    Cursor(Iterator<TimeRange> busyTimes) {
+      this.busyTimes = busyTimes;
+    }
+
+    // Moves on to the next busy time. Returns false if there are none left.
+    boolean advance() {
+      head = busyTimes.hasNext() ? busyTimes.next() : null;
+      return head != null;
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      return TimeRange.ORDER_BY_START.compare(head, other.head);
+    }
+  }
+}
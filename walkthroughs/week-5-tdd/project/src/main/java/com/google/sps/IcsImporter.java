@@ -0,0 +1,165 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Imports the events of an iCalendar file in batches. The importer itself holds at most one batch
+ * of events at a time, so the memory it uses while reading doesn't depend on the size of the file;
+ * the events that are kept are the ones that end up in the calendar.
+ *
+ * <p>Imported events are in minutes since the epoch (UTC), like everything {@link IcsParser}
+ * reads. {@code /query} and the {@link MeetingQueryCache} search {@link TimeRange#WHOLE_DAY}, the
+ * minutes of one day, so they won't find imported events. Query them with a window in epoch
+ * minutes instead, such as with {@link HorizonMeetingQuery} or
+ * {@link FindMeetingQuery#query(CalendarView, MeetingRequest, TimeRange)}.
+ */
+public final class IcsImporter {
+  /** How many events to send at once when no batch size is given. */
+  public static final int DEFAULT_BATCH_SIZE = 10000;
+
+  /**
+   * How an import went.
+   */
+  public static final class Stats {
+    private final long imported;
+    private final long skipped;
+    private final long batches;
+    private final long elapsedNanos;
+
+    private Stats(long imported, long skipped, long batches, long elapsedNanos) {
+      this.imported = imported;
+      this.skipped = skipped;
+      this.batches = batches;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns how many events were imported.
+     */
+    public long getImported() {
+      return imported;
+    }
+
+    /**
+     * Returns how many events in the file were left out.
+     */
+    public long getSkipped() {
+      return skipped;
+    }
+
+    /**
+     * Returns how many batches the events were sent in.
+     */
+    public long getBatches() {
+      return batches;
+    }
+
+    /**
+     * Returns how long the import took, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Returns how many events were imported per second.
+     */
+    public double getEventsPerSecond() {
+      return elapsedNanos == 0 ? 0 : imported * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Imported %d events (%d skipped) in %d batches in %.3f s: %.0f events/s",
+          imported, skipped, batches, elapsedNanos / 1e9, getEventsPerSecond());
+    }
+  }
+
+  /**
+   * Reads every event from {@code reader} and hands them to {@code sink} in lists of at most
+   * {@code batchSize} events. The sink must not keep the list it is given, which is reused.
+   */
+  public Stats importEvents(Reader reader, int batchSize, Consumer<List<Event>> sink)
+      throws IOException {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+
+    long startNanos = System.nanoTime();
+    IcsParser parser = new IcsParser(reader);
+    List<Event> batch = new ArrayList<>(batchSize);
+    long imported = 0;
+    long batches = 0;
+    Event event;
+    while ((event = parser.nextEvent()) != null) {
+      batch.add(event);
+      if (batch.size() == batchSize) {
+        sink.accept(batch);
+        imported += batch.size();
+        batches++;
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      sink.accept(batch);
+      imported += batch.size();
+      batches++;
+    }
+    return new Stats(imported, parser.getSkipped(), batches, System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Adds every event from {@code reader} to {@code repository}, sending them to a
+   * {@link CalendarRepository.Staging} in batches of {@code batchSize}. Every snapshot copies and
+   * indexes the whole calendar, so the batches are published together in a single new snapshot
+   * once the file has been read, which keeps the import linear in the size of the file.
+   */
+  public Stats importInto(Reader reader, CalendarRepository repository, int batchSize)
+      throws IOException {
+    long startNanos = System.nanoTime();
+    CalendarRepository.Staging staging = repository.stage();
+    Stats read = importEvents(reader, batchSize, staging::add);
+    staging.publish();
+    return new Stats(read.getImported(), read.getSkipped(), read.getBatches(),
+        System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Imports an .ics file into an empty calendar and prints how fast it went. Takes the path of the
+   * file and, optionally, the batch size.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: IcsImporter <file.ics> [batch size]");
+      System.exit(1);
+    }
+    int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH_SIZE;
+
+    CalendarRepository repository = new CalendarRepository();
+    try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+      Stats stats = new IcsImporter().importInto(reader, repository, batchSize);
+      System.out.println(stats);
+    }
+  }
+}
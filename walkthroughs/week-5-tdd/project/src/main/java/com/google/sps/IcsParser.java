@@ -0,0 +1,309 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the events of an iCalendar (.ics) file one at a time, so that files of any size can be
+ * read without holding them in memory. Only the current event is kept.
+ *
+ * <p>Each VEVENT becomes an {@link Event} whose time is in minutes since the epoch (UTC), the way
+ * {@link HorizonMeetingQuery} expects. Its attendees are the ATTENDEE and ORGANIZER addresses, and
+ * its title is the SUMMARY. Events marked as transparent or cancelled don't keep anybody busy and
+ * are skipped, as are events without a start time, events whose start, end or duration can't
+ * be read and an event that the file ends in the middle of. Recurrence rules are not expanded.
+ */
+public final class IcsParser {
+  private static final DateTimeFormatter DATE_TIME =
+      DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+  private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+  private static final int SECONDS_PER_MINUTE = 60;
+
+  private final BufferedReader reader;
+
+  // The next physical line, read ahead to see whether it continues the current one.
+  private String nextLine;
+  private boolean started;
+  private long skipped;
+
+  /**
+   * Creates a parser that reads from {@code reader}. Must be non-null.
+   */
+  public IcsParser(Reader reader) {
+    if (reader == null) {
+      throw new IllegalArgumentException("reader cannot be null");
+    }
+    this.reader =
+        reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+  }
+
+  /**
+   * Returns the next event of the file, or null when there are no more.
+   */
+  public Event nextEvent() throws IOException {
+    String line;
+    while ((line = readLine()) != null) {
+      if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+        Event event = readEvent();
+        if (event != null) {
+          return event;
+        }
+        skipped++;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns how many events were left out so far because they don't keep anybody busy or could
+   * not be read.
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  // Reads the properties of an event up to its END:VEVENT. Returns null if the event should be
+  // left out.
+  private Event readEvent() throws IOException {
+    String title = "";
+    Long start = null;
+    Long end = null;
+    Duration duration = null;
+    boolean allDay = false;
+    boolean busy = true;
+    boolean unreadable = false;
+    boolean ended = false;
+    List<String> attendees = new ArrayList<>();
+
+    // Properties of blocks inside of the event, such as alarms, don't belong to the event.
+    int depth = 0;
+    String line;
+    while ((line = readLine()) != null) {
+      Property property = Property.parse(line);
+      if (property == null) {
+        continue;
+      }
+      if (property.name.equals("BEGIN")) {
+        depth++;
+        continue;
+      }
+      if (property.name.equals("END")) {
+        if (depth == 0) {
+          ended = true;
+          break;
+        }
+        depth--;
+        continue;
+      }
+      if (depth > 0) {
+        continue;
+      }
+
+      try {
+        switch (property.name) {
+          case "SUMMARY":
+            title = unescape(property.value);
+            break;
+          case "DTSTART":
+            allDay = property.isDate();
+            start = toEpochMinutes(property);
+            break;
+          case "DTEND":
+            end = toEpochMinutes(property);
+            break;
+          case "DURATION":
+            duration = parseDuration(property.value);
+            break;
+          case "ATTENDEE":
+          case "ORGANIZER":
+            attendees.add(toAttendee(property.value));
+            break;
+          case "TRANSP":
+            busy &= !property.value.equalsIgnoreCase("TRANSPARENT");
+            break;
+          case "STATUS":
+            busy &= !property.value.equalsIgnoreCase("CANCELLED");
+            break;
+          default:
+            break;
+        }
+      } catch (DateTimeException | ArithmeticException | NumberFormatException e) {
+        // Guessing at a time we can't read could make the event block too little or too much.
+        unreadable = true;
+      }
+    }
+
+    // An event cut off by the end of the file may be missing its end or some of its attendees.
+    if (!ended || start == null || unreadable || !busy) {
+      return null;
+    }
+    if (end == null) {
+      if (duration != null) {
+        end = start + duration.toMinutes();
+      } else {
+        // An all-day event without an end lasts the day; anything else takes no time.
+        end = allDay ? start + TimeRange.WHOLE_DAY.duration() : start;
+      }
+    }
+    if (end < start || end > Integer.MAX_VALUE || start < Integer.MIN_VALUE) {
+      return null;
+    }
+    return new Event(title,
+        TimeRange.fromStartEnd(start.intValue(), end.intValue(), false), attendees);
+  }
+
+  // Returns the next logical line, with the lines that continue it joined on.
+  private String readLine() throws IOException {
+    if (!started) {
+      nextLine = reader.readLine();
+      started = true;
+    }
+    if (nextLine == null) {
+      return null;
+    }
+
+    StringBuilder line = new StringBuilder(nextLine);
+    nextLine = reader.readLine();
+    // A line starting with a space or a tab continues the one before it.
+    while (nextLine != null && !nextLine.isEmpty()
+        && (nextLine.charAt(0) == ' ' || nextLine.charAt(0) == '\t')) {
+      line.append(nextLine, 1, nextLine.length());
+      nextLine = reader.readLine();
+    }
+    return line.toString();
+  }
+
+  private static long toEpochMinutes(Property property) {
+    String value = property.value.trim();
+    if (property.isDate()) {
+      return LocalDate.parse(value, DATE).toEpochDay() * TimeRange.WHOLE_DAY.duration();
+    }
+
+    long epochSeconds;
+    if (value.endsWith("Z") || value.endsWith("z")) {
+      epochSeconds = LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME)
+          .toEpochSecond(ZoneOffset.UTC);
+    } else {
+      // Times without a zone are read in the zone given with them, and as UTC otherwise.
+      String zone = property.parameter("TZID");
+      ZoneId zoneId = zone == null ? ZoneOffset.UTC : ZoneId.of(zone);
+      epochSeconds = LocalDateTime.parse(value, DATE_TIME).atZone(zoneId).toEpochSecond();
+    }
+    return Math.floorDiv(epochSeconds, SECONDS_PER_MINUTE);
+  }
+
+  private static Duration parseDuration(String value) {
+    String duration = value.trim().toUpperCase(Locale.ROOT);
+    // java.time doesn't read weeks, which iCalendar allows on their own.
+    int weeks = duration.indexOf('W');
+    if (weeks >= 0) {
+      boolean negative = duration.startsWith("-");
+      long count = Long.parseLong(duration.substring(duration.indexOf('P') + 1, weeks));
+      return Duration.ofDays((negative ? -7 : 7) * count);
+    }
+    return Duration.parse(duration);
+  }
+
+  private static String toAttendee(String value) {
+    String address = value.trim();
+    if (address.regionMatches(true, 0, "mailto:", 0, "mailto:".length())) {
+      address = address.substring("mailto:".length());
+    }
+    return address;
+  }
+
+  private static String unescape(String text) {
+    StringBuilder unescaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\\' && i + 1 < text.length()) {
+        char next = text.charAt(++i);
+        unescaped.append(next == 'n' || next == 'N' ? '\n' : next);
+      } else {
+        unescaped.append(c);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  /**
+   * One content line: a name, its parameters, and a value.
+   */
+  private static final class Property {
+    private final String name;
+    private final String parameters;
+    private final String value;
+
+    private Property(String name, String parameters, String value) {
+      this.name = name;
+      this.parameters = parameters;
+      this.value = value;
+    }
+
+    // Splits "NAME;PARAM=a;PARAM=b:value" at the first colon that isn't inside of quotes. Returns
+    // null for lines without one.
+    static Property parse(String line) {
+      boolean quoted = false;
+      for (int i = 0; i < line.length(); i++) {
+        char c = line.charAt(i);
+        if (c == '"') {
+          quoted = !quoted;
+        } else if (c == ':' && !quoted) {
+          String head = line.substring(0, i);
+          int semicolon = head.indexOf(';');
+          String name = semicolon < 0 ? head : head.substring(0, semicolon);
+          String parameters = semicolon < 0 ? "" : head.substring(semicolon + 1);
+          return new Property(
+              name.trim().toUpperCase(Locale.ROOT), parameters, line.substring(i + 1));
+        }
+      }
+      return null;
+    }
+
+    // Returns the value of the parameter with the given name, without quotes, or null.
+    String parameter(String parameterName) {
+      for (String parameter : parameters.split(";")) {
+        int equals = parameter.indexOf('=');
+        if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase(parameterName)) {
+          String parameterValue = parameter.substring(equals + 1).trim();
+          if (parameterValue.length() >= 2 && parameterValue.startsWith("\"")
+              && parameterValue.endsWith("\"")) {
+            parameterValue = parameterValue.substring(1, parameterValue.length() - 1);
+          }
+          return parameterValue;
+        }
+      }
+      return null;
+    }
+
+    boolean isDate() {
+      String type = parameter("VALUE");
+      return (type != null && type.equalsIgnoreCase("DATE")) || value.trim().length() == 8;
+    }
+  }
+}
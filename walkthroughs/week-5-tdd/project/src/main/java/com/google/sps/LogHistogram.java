@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts values in buckets whose bounds are powers of two: bucket 0 holds 0, and bucket i holds
+ * the values from 2^(i-1) up to 2^i - 1. Recording a value is one atomic add, without locks or
+ * allocation, so any number of threads can record at once. Negative values count as 0.
+ */
+public final class LogHistogram {
+  /** How many buckets there are; enough for every non-negative long. */
+  public static final int BUCKETS = Long.SIZE;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Counts {@code value}.
+   */
+  public void record(long value) {
+    counts.incrementAndGet(bucketOf(value));
+  }
+
+  /**
+   * Returns the bucket that {@code value} is counted in.
+   */
+  public static int bucketOf(long value) {
+    return value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value);
+  }
+
+  /**
+   * Returns the largest value counted in {@code bucket}.
+   */
+  public static long upperBound(int bucket) {
+    return bucket == 0 ? 0 : (1L << bucket) - 1;
+  }
+
+  /**
+   * Returns a copy of the counts of every bucket. Values recorded while copying may or may not be
+   * in it.
+   */
+  public long[] getCounts() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+    }
+    return copy;
+  }
+
+  /**
+   * Returns the upper bound of the bucket that the value at {@code quantile} (between 0 and 1)
+   * falls in, or 0 if nothing was recorded.
+   */
+  public long getQuantile(double quantile) {
+    long[] copy = getCounts();
+    long total = 0;
+    for (long count : copy) {
+      total += count;
+    }
+    long rank = (long) Math.ceil(quantile * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += copy[i];
+      if (seen >= rank && seen > 0) {
+        return upperBound(i);
+      }
+    }
+    return 0;
+  }
+}
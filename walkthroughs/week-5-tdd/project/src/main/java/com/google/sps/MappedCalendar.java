@@ -0,0 +1,337 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A calendar read straight from a snapshot file written by {@link SnapshotWriter}. The file is
+ * mapped into memory and nothing is decoded up front; opening a snapshot only checks its offset
+ * tables, so it takes the same time however many events there are. Looking up a person is a binary
+ * search over the string table. Reading their busy times in a window is a binary search over the
+ * skip entries of their postings, and then a walk from the last skip entry before the window.
+ * Opening can't see damage inside of somebody's postings or the events; a query that notices some
+ * throws an {@link IllegalStateException}. Mapped calendars are read-only and safe to share between
+ * threads.
+ */
+public final class MappedCalendar implements CalendarView {
+  private final ByteBuffer buffer;
+  private final int stringCount;
+  private final int eventCount;
+  private final int stringsStart;
+  private final int eventsStart;
+  private final int postingsStart;
+
+  private MappedCalendar(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.capacity() < 4 * SnapshotWriter.HEADER_INTS
+        || buffer.getInt(0) != SnapshotWriter.MAGIC) {
+      throw new IOException("not a calendar snapshot");
+    }
+    if (buffer.getInt(4) != SnapshotWriter.VERSION) {
+      throw new IOException("unsupported snapshot version " + buffer.getInt(4));
+    }
+    this.stringCount = buffer.getInt(8);
+    this.eventCount = buffer.getInt(12);
+    this.stringsStart = buffer.getInt(16);
+    this.eventsStart = buffer.getInt(20);
+    this.postingsStart = buffer.getInt(24);
+    long tables = 4L * (SnapshotWriter.HEADER_INTS + 2L * (stringCount + 1));
+    if (stringCount < 0 || eventCount < 0 || stringsStart != tables
+        || eventsStart < stringsStart || postingsStart < eventsStart
+        || postingsStart > buffer.capacity()) {
+      throw new IOException("corrupt calendar snapshot");
+    }
+    // Every offset has to be inside of its section and no smaller than the one before, or a query
+    // could read past the section or into the wrong data. Every event takes at least a byte.
+    if (!offsetsFit(4 * SnapshotWriter.HEADER_INTS, eventsStart - stringsStart, true)
+        || !offsetsFit(postingOffsetsStart(), buffer.capacity() - postingsStart, false)
+        || eventCount > postingsStart - eventsStart) {
+      throw new IOException("corrupt calendar snapshot");
+    }
+  }
+
+  // Returns whether the stringCount + 1 offsets from table on go up from 0 to at most limit, and
+  // end at exactly limit if exact is set.
+  private boolean offsetsFit(int table, int limit, boolean exact) {
+    int previous = buffer.getInt(table);
+    if (previous != 0) {
+      return false;
+    }
+    for (int i = 1; i <= stringCount; i++) {
+      int offset = buffer.getInt(table + 4 * i);
+      if (offset < previous || offset > limit) {
+        return false;
+      }
+      previous = offset;
+    }
+    return !exact || previous == limit;
+  }
+
+  /**
+   * Maps the snapshot in {@code file}.
+   *
+   * @throws IOException if the file can't be read or isn't a snapshot this version can read.
+   */
+  public static MappedCalendar open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      return new MappedCalendar(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Reads a snapshot that is already in memory, such as one written to a byte array.
+   */
+  public static MappedCalendar wrap(ByteBuffer snapshot) throws IOException {
+    return new MappedCalendar(snapshot.slice());
+  }
+
+  /**
+   * Returns how many events the snapshot has.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Decodes every event of the snapshot, ordered by start.
+   */
+  public List<Event> getEvents() {
+    List<Event> events = new ArrayList<>(eventCount);
+    VarintReader reader = new VarintReader(eventsStart);
+    int start = 0;
+    for (int i = 0; i < eventCount; i++) {
+      start += reader.readSigned();
+      int duration = reader.read();
+      String title = string(reader.read());
+      String[] attendees = new String[reader.read()];
+      int id = 0;
+      for (int j = 0; j < attendees.length; j++) {
+        id += reader.read();
+        attendees[j] = string(id);
+      }
+      events.add(new Event(
+          title, TimeRange.fromStartDuration(start, duration), Arrays.asList(attendees)));
+    }
+    return events;
+  }
+
+  @Override
+  public List<TimeRange> getBusyTimes(String attendee) {
+    List<TimeRange> busyTimes = new ArrayList<>();
+    for (TimeRange busy : postings(attendee, Integer.MIN_VALUE)) {
+      busyTimes.add(busy);
+    }
+    return busyTimes;
+  }
+
+  /**
+   * Returns the busy times of {@code attendee} that overlap {@code window}, ordered by start. The
+   * postings are decoded while they are iterated over, starting from the last skip entry before
+   * the window, and decoding stops at the end of the window.
+   */
+  @Override
+  public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+    Iterable<TimeRange> postings = postings(attendee, window.start());
+    return () -> new Iterator<TimeRange>() {
+      private final Iterator<TimeRange> all = postings.iterator();
+      private TimeRange next = advance();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public TimeRange next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        TimeRange current = next;
+        next = advance();
+        return current;
+      }
+
+      private TimeRange advance() {
+        while (all.hasNext()) {
+          TimeRange busy = all.next();
+          if (busy.start() >= window.end()) {
+            return null;
+          }
+          if (busy.end() > window.start()) {
+            return busy;
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  // Returns the busy times of an attendee by start, decoded as they are iterated over. Skips the
+  // blocks of postings that all end by after.
+  private Iterable<TimeRange> postings(String attendee, int after) {
+    int id = find(attendee.getBytes(StandardCharsets.UTF_8));
+    if (id < 0) {
+      return Collections.emptyList();
+    }
+    int offset = postingsStart + buffer.getInt(postingOffsetsStart() + 4 * id);
+    int end = postingsStart + buffer.getInt(postingOffsetsStart() + 4 * (id + 1));
+    VarintReader header = new VarintReader(offset);
+    int count = header.read();
+    int skips = count == 0 ? 0 : (count - 1) / SnapshotWriter.SKIP_INTERVAL;
+    int skipTable = header.position;
+    long firstStart = skipTable + (long) SnapshotWriter.SKIP_ENTRY_BYTES * skips;
+    if (count < 0 || firstStart > end) {
+      throw new IllegalStateException("corrupt calendar snapshot");
+    }
+
+    // Find the last block whose earlier postings all end by after. Block b > 0 has skip entry
+    // b - 1, and the latest end of the entries never goes down.
+    int low = 0;
+    int high = skips;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (buffer.getInt(skipEntry(skipTable, middle) + 4) <= after) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    int block = low;
+    int blockStart = block == 0 ? 0 : buffer.getInt(skipEntry(skipTable, block));
+    long blockOffset =
+        firstStart + (block == 0 ? 0 : buffer.getInt(skipEntry(skipTable, block) + 8));
+    if (blockOffset < firstStart || blockOffset > end) {
+      throw new IllegalStateException("corrupt calendar snapshot");
+    }
+    return () -> new Iterator<TimeRange>() {
+      private final VarintReader reader = new VarintReader((int) blockOffset);
+      private int read = block * SnapshotWriter.SKIP_INTERVAL;
+      private int start = blockStart;
+
+      @Override
+      public boolean hasNext() {
+        return read < count;
+      }
+
+      @Override
+      public TimeRange next() {
+        if (read == count) {
+          throw new NoSuchElementException();
+        }
+        read++;
+        start += reader.readSigned();
+        return TimeRange.fromStartDuration(start, reader.read());
+      }
+    };
+  }
+
+  // Returns where the skip entry that leads to block starts.
+  private static int skipEntry(int skipTable, int block) {
+    return skipTable + SnapshotWriter.SKIP_ENTRY_BYTES * (block - 1);
+  }
+
+  // Returns the id of the string with the given UTF-8 bytes, or -1 if there is none.
+  private int find(byte[] key) {
+    int low = 0;
+    int high = stringCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compare(middle, key);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  // Compares string id with key as unsigned bytes, without copying it out of the file.
+  private int compare(int id, byte[] key) {
+    int from = stringStart(id);
+    int length = stringStart(id + 1) - from;
+    int common = Math.min(length, key.length);
+    for (int i = 0; i < common; i++) {
+      int difference = (buffer.get(from + i) & 0xFF) - (key[i] & 0xFF);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return length - key.length;
+  }
+
+  private String string(int id) {
+    if (id < 0 || id >= stringCount) {
+      throw new IllegalStateException("corrupt calendar snapshot");
+    }
+    int from = stringStart(id);
+    byte[] bytes = new byte[stringStart(id + 1) - from];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(from + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int stringStart(int id) {
+    return stringsStart + buffer.getInt(4 * (SnapshotWriter.HEADER_INTS + id));
+  }
+
+  private int postingOffsetsStart() {
+    return 4 * (SnapshotWriter.HEADER_INTS + stringCount + 1);
+  }
+
+  /**
+   * Decodes varints from the buffer with a cursor of its own, so that readers on different
+   * threads don't share a position.
+   */
+  private final class VarintReader {
+    private int position;
+
+    VarintReader(int position) {
+      this.position = position;
+    }
+
+    int read() {
+      int value = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = buffer.get(position++);
+        value |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+
+    int readSigned() {
+      int value = read();
+      return (value >>> 1) ^ -(value & 1);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the meeting times that work for every required attendee and for as many optional
+ * attendees as possible. Unlike {@link FindMeetingQuery}, which either fits all of the optional
+ * attendees or none of them, this considers every subset of them at once with a single sweep.
+ */
+public final class MaxOptionalAttendeesQuery {
+
+  /**
+   * The best meeting times and how many optional attendees can make them.
+   */
+  public static final class Result {
+    private final List<TimeRange> slots;
+    private final int availableOptionalAttendees;
+
+    private Result(List<TimeRange> slots, int availableOptionalAttendees) {
+      this.slots = slots;
+      this.availableOptionalAttendees = availableOptionalAttendees;
+    }
+
+    /**
+     * Returns a read-only list of the best meeting times, in ascending order. Any meeting that fits
+     * inside one of them works for {@link #getAvailableOptionalAttendees()} optional attendees.
+     */
+    public List<TimeRange> getSlots() {
+      return Collections.unmodifiableList(slots);
+    }
+
+    /**
+     * Returns how many optional attendees can make the best meeting times.
+     */
+    public int getAvailableOptionalAttendees() {
+      return availableOptionalAttendees;
+    }
+  }
+
+  /**
+   * Finds the best meeting times during the day.
+   */
+  public Result query(CalendarView calendar, MeetingRequest request) {
+    return query(calendar, request, TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Finds the best meeting times inside {@code window}.
+   */
+  public Result query(CalendarView calendar, MeetingRequest request, TimeRange window) {
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
+
+    // A single required attendee who can't make it outweighs every optional attendee together.
+    int requiredWeight = optionalAttendees.size() + 1;
+    StartTimeSweep sweep = new StartTimeSweep(window, request.getDuration());
+    for (String attendee : request.getAttendees()) {
+      sweep.addAttendee(calendar.getBusyTimes(attendee, window), requiredWeight);
+    }
+    for (String attendee : optionalAttendees) {
+      sweep.addAttendee(calendar.getBusyTimes(attendee, window), 1);
+    }
+
+    int fewestMissing = sweep.minUnavailable();
+    if (fewestMissing >= requiredWeight) {
+      return new Result(Collections.<TimeRange>emptyList(), 0);
+    }
+    return new Result(sweep.slots(fewestMissing), optionalAttendees.size() - fewestMissing);
+  }
+}
@@ -0,0 +1,265 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the answers of {@link FindMeetingQuery} for one calendar as it changes over time.
+ * Requests with the same attendees, optional attendees, duration, limit and earliest start share
+ * an answer, whatever order the attendees were given in. An answer is only reused while none of
+ * the attendees in the request had an event added or removed since it was computed, so changes to
+ * other people's calendars don't throw it away. When the cache is full, the least recently used
+ * answer is dropped.
+ *
+ * <p>Every query is given the version of the calendar to answer from, such as the latest
+ * {@link CalendarSnapshot}. All of them must be versions of the same calendar. The cache can be
+ * used from several threads, as long as each calendar it is given isn't changed during a query.
+ */
+public final class MeetingQueryCache {
+  private final FindMeetingQuery findMeetingQuery;
+  private final Map<Key, Entry> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Creates a cache that holds at most {@code maxEntries} answers.
+   */
+  public MeetingQueryCache(int maxEntries) {
+    this(maxEntries, new FindMeetingQuery());
+  }
+
+  /**
+   * Creates a cache that holds at most {@code maxEntries} answers and computes the ones it doesn't
+   * have with {@code findMeetingQuery}.
+   */
+  public MeetingQueryCache(int maxEntries, FindMeetingQuery findMeetingQuery) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    this.findMeetingQuery = findMeetingQuery;
+
+    // An access-ordered map puts the least recently used answer first.
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * The times found for a request, and whether they came from the cache.
+   */
+  public static final class Answer {
+    private final Collection<TimeRange> times;
+    private final boolean hit;
+
+    private Answer(Collection<TimeRange> times, boolean hit) {
+      this.times = times;
+      this.hit = hit;
+    }
+
+    /**
+     * Returns a read-only collection of the meeting times.
+     */
+    public Collection<TimeRange> getTimes() {
+      return times;
+    }
+
+    /**
+     * Returns true if the times were already known, and false if they had to be computed.
+     */
+    public boolean isHit() {
+      return hit;
+    }
+  }
+
+  /**
+   * Returns the same times as {@link FindMeetingQuery#query(CalendarView, MeetingRequest)}, as a
+   * read-only collection.
+   */
+  public Collection<TimeRange> query(VersionedCalendarView calendar, MeetingRequest request) {
+    return answer(calendar, request).getTimes();
+  }
+
+  /**
+   * Returns the same times as {@link #query(VersionedCalendarView, MeetingRequest)}, together with
+   * whether they came from the cache.
+   */
+  public Answer answer(VersionedCalendarView calendar, MeetingRequest request) {
+    Key key = new Key(request);
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+    if (entry != null && isCurrent(calendar, key, entry.version)) {
+      hits.incrementAndGet();
+      return new Answer(entry.answer, true);
+    }
+
+    misses.incrementAndGet();
+    long version = calendar.getVersion();
+    Collection<TimeRange> answer =
+        Collections.unmodifiableCollection(findMeetingQuery.query(calendar, request));
+    store(key, version, answer);
+    return new Answer(answer, false);
+  }
+
+  private void store(Key key, long version, Collection<TimeRange> answer) {
+    synchronized (entries) {
+      // A query against an older version may finish last; keep the newer answer.
+      Entry latest = entries.get(key);
+      if (latest == null || latest.version <= version) {
+        entries.put(key, new Entry(answer, version));
+      }
+    }
+  }
+
+  /**
+   * Returns the answer to {@code request} if the cache has one that is current for
+   * {@code calendar}, or null. Doesn't compute anything, and only counts as a hit when it finds
+   * an answer.
+   */
+  public Collection<TimeRange> getIfPresent(
+      VersionedCalendarView calendar, MeetingRequest request) {
+    Key key = new Key(request);
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+    if (entry == null || !isCurrent(calendar, key, entry.version)) {
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.answer;
+  }
+
+  /**
+   * Remembers {@code answer} as the answer to {@code request}, which must have been found in
+   * {@code calendar} the way {@link FindMeetingQuery} would have found it.
+   */
+  public void put(
+      VersionedCalendarView calendar, MeetingRequest request, Collection<TimeRange> answer) {
+    store(new Key(request), calendar.getVersion(), Collections.unmodifiableCollection(answer));
+  }
+
+  /**
+   * Returns how many queries were answered from the cache.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns how many queries had to be computed.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the number of answers in the cache, including ones that have gone stale.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  // Returns true if the answer computed at the given version is what the calendar would give: the
+  // calendar is at least that new, and no attendee in the key had their events changed since.
+  private static boolean isCurrent(VersionedCalendarView calendar, Key key, long version) {
+    if (calendar.getVersion() < version) {
+      return false;
+    }
+    for (String attendee : key.attendees) {
+      if (calendar.getVersion(attendee) > version) {
+        return false;
+      }
+    }
+    for (String attendee : key.optionalAttendees) {
+      if (calendar.getVersion(attendee) > version) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * An answer and the version of the calendar it was computed from.
+   */
+  private static final class Entry {
+    private final Collection<TimeRange> answer;
+    private final long version;
+
+    private Entry(Collection<TimeRange> answer, long version) {
+      this.answer = answer;
+      this.version = version;
+    }
+  }
+
+  /**
+   * The parts of a request that decide its answer, with the attendees sorted.
+   */
+  private static final class Key {
+    private final List<String> attendees;
+    private final List<String> optionalAttendees;
+    private final long duration;
+    private final int limit;
+    private final int earliestStart;
+
+    private Key(MeetingRequest request) {
+      this.attendees = sorted(request.getAttendees());
+      this.optionalAttendees = sorted(request.getOptionalAttendees());
+      this.duration = request.getDuration();
+      this.limit = request.getLimit();
+      this.earliestStart = request.getEarliestStart();
+    }
+
+    private static List<String> sorted(Collection<String> people) {
+      List<String> sorted = new ArrayList<>(people);
+      Collections.sort(sorted);
+      return sorted;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return duration == key.duration
+          && limit == key.limit
+          && earliestStart == key.earliestStart
+          && attendees.equals(key.attendees)
+          && optionalAttendees.equals(key.optionalAttendees);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = attendees.hashCode() * 31 + optionalAttendees.hashCode();
+      hash = hash * 31 + Long.hashCode(duration);
+      return (hash * 31 + limit) * 31 + earliestStart;
+    }
+  }
+}
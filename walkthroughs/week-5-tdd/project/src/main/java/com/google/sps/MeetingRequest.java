@@ -14,48 +14,250 @@
 
 package com.google.sps;
 
+import com.google.gson.annotations.JsonAdapter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 
 public final class MeetingRequest {
   // All the people that should be attending this new meeting. Use a set to avoid duplicates.
-  private final Collection<String> attendees = new HashSet<>();
+  @JsonAdapter(AttendeeSet.LookupGsonAdapter.class)
+  private AttendeeSet attendees = AttendeeSet.EMPTY;
 
   // Some optional attendees for this new meeting. Use a set to avoid duplicates.
-  private final Collection<String> optional_attendees = new HashSet<>();
+  @JsonAdapter(AttendeeSet.LookupGsonAdapter.class)
+  private AttendeeSet optional_attendees = AttendeeSet.EMPTY;
+
+  // Optional attendees added one at a time since the set above was last built. They are joined
+  // into it once it is needed, so adding n of them doesn't copy the set n times. Both are only
+  // touched while holding the lock of the request, since one request may be answered on several
+  // threads at once.
+  private transient List<String> addedOptionalAttendees = new ArrayList<>();
 
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // How many of the attendees have to be able to make it. 0 means all of them.
+  private int min_attendance;
+
+  // The most meeting times to return. 0 means all of them.
+  private int limit;
+
+  // No meeting time starts before this minute. 0 means the start of the day.
+  private int earliest_start;
+
+  // The minutes of the day that meetings should preferably be inside of. Both 0 means any time.
+  private int preferred_start;
+  private int preferred_end;
+
+  // Whether meetings that start or end right next to someone's event should be ranked lower.
+  private boolean avoid_back_to_back;
+
+  // Whether meetings that leave bits of free time too short to use should be ranked lower.
+  private boolean minimize_fragmentation;
+
+  // How many ranked meeting times to suggest. 0 means the default of whoever ranks them.
+  private int suggestions;
+
+  // How long finding the meeting times may take, in milliseconds. 0 means as long as it takes.
+  private long time_budget_millis;
+
+  // Used by Gson. Having it means the field initializers above run, so a request that leaves out
+  // the optional attendees gets an empty set rather than null.
+  private MeetingRequest() {
+    this.duration = 0;
+  }
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
-    this.attendees.addAll(attendees);
+    this.attendees = AttendeeSet.lookup(attendees);
   }
 
   /**
    * Returns a read-only copy of the people who are required to attend this meeting.
    */
   public Collection<String> getAttendees() {
-    return Collections.unmodifiableCollection(attendees);
+    return attendees;
+  }
+
+  /**
+   * Returns the required attendees as ids, for comparing them with other attendee sets.
+   */
+  public AttendeeSet getAttendeeSet() {
+    return attendees;
   }
 
   /**
    * Returns a read-only copy of the people who are optional to attend this meeting.
    */
   public Collection<String> getOptionalAttendees() {
-    return Collections.unmodifiableCollection(optional_attendees);
+    return getOptionalAttendeeSet();
+  }
+
+  /**
+   * Returns the optional attendees as ids, for comparing them with other attendee sets.
+   */
+  public synchronized AttendeeSet getOptionalAttendeeSet() {
+    if (!addedOptionalAttendees.isEmpty()) {
+      optional_attendees = optional_attendees.with(addedOptionalAttendees);
+      addedOptionalAttendees.clear();
+    }
+    return optional_attendees;
   }
 
   /**
    * Adds one optional attendee for the meeting.
    */
-  public void addOptionalAttendee(String attendee) {
+  public synchronized void addOptionalAttendee(String attendee) {
+    if (attendee == null) {
+      throw new IllegalArgumentException("attendee cannot be null");
+    }
     if (!attendees.contains(attendee)) {
-      optional_attendees.add(attendee);
+      addedOptionalAttendees.add(attendee);
+    }
+  }
+
+  /**
+   * Lets the meeting go ahead when only {@code minAttendance} of the required attendees can make
+   * it. 0 means that all of them have to.
+   */
+  public void setMinAttendance(int minAttendance) {
+    if (minAttendance < 0) {
+      throw new IllegalArgumentException("minAttendance cannot be negative");
     }
+    this.min_attendance = minAttendance;
+  }
+
+  /**
+   * Returns how many of the required attendees have to be able to make it, or 0 if all of them do.
+   */
+  public int getMinAttendance() {
+    return min_attendance;
+  }
+
+  /**
+   * Asks for at most {@code limit} meeting times, the earliest ones. 0 means all of them.
+   */
+  public void setLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit cannot be negative");
+    }
+    this.limit = limit;
+  }
+
+  /**
+   * Returns the most meeting times to return, or 0 for all of them.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Asks for meeting times that start at or after the minute {@code earliestStart}.
+   */
+  public void setEarliestStart(int earliestStart) {
+    if (earliestStart < 0) {
+      throw new IllegalArgumentException("earliestStart cannot be negative");
+    }
+    this.earliest_start = earliestStart;
+  }
+
+  /**
+   * Returns the minute before which no meeting time may start.
+   */
+  public int getEarliestStart() {
+    return earliest_start;
+  }
+
+  /**
+   * Prefers meeting times inside {@code preferredHours}, given in minutes of the day. Null means
+   * any time is as good as another.
+   */
+  public void setPreferredHours(TimeRange preferredHours) {
+    if (preferredHours != null
+        && (preferredHours.start() < 0 || preferredHours.end() > TimeRange.WHOLE_DAY.end())) {
+      throw new IllegalArgumentException("preferredHours must be inside of a day");
+    }
+    this.preferred_start = preferredHours == null ? 0 : preferredHours.start();
+    this.preferred_end = preferredHours == null ? 0 : preferredHours.end();
+  }
+
+  /**
+   * Returns the minutes of the day that meeting times should preferably be inside of, or null if
+   * there are none.
+   */
+  public TimeRange getPreferredHours() {
+    if (preferred_end <= preferred_start) {
+      return null;
+    }
+    return TimeRange.fromStartEnd(preferred_start, preferred_end, false);
+  }
+
+  /**
+   * Prefers meeting times that don't start or end right next to an attendee's event.
+   */
+  public void setAvoidBackToBack(boolean avoidBackToBack) {
+    this.avoid_back_to_back = avoidBackToBack;
+  }
+
+  /**
+   * Returns true if meeting times right next to an attendee's event should be ranked lower.
+   */
+  public boolean avoidsBackToBack() {
+    return avoid_back_to_back;
+  }
+
+  /**
+   * Prefers meeting times that don't leave short bits of free time before or after them.
+   */
+  public void setMinimizeFragmentation(boolean minimizeFragmentation) {
+    this.minimize_fragmentation = minimizeFragmentation;
+  }
+
+  /**
+   * Returns true if meeting times that break free time up into short bits should be ranked lower.
+   */
+  public boolean minimizesFragmentation() {
+    return minimize_fragmentation;
+  }
+
+  /**
+   * Asks for the best {@code suggestions} meeting times when they are ranked by the preferences.
+   * 0 means the default number. Unlike {@link #setLimit(int)}, this doesn't change which times
+   * there are, only how many of the best ones are suggested.
+   */
+  public void setSuggestions(int suggestions) {
+    if (suggestions < 0) {
+      throw new IllegalArgumentException("suggestions cannot be negative");
+    }
+    this.suggestions = suggestions;
+  }
+
+  /**
+   * Returns how many ranked meeting times to suggest, or 0 for the default number.
+   */
+  public int getSuggestions() {
+    return suggestions;
+  }
+
+  /**
+   * Gives finding the meeting times {@code timeBudgetMillis} milliseconds, after which the times
+   * that suit the attendees checked so far are good enough. 0 means there is no limit.
+   */
+  public void setTimeBudgetMillis(long timeBudgetMillis) {
+    if (timeBudgetMillis < 0) {
+      throw new IllegalArgumentException("timeBudgetMillis cannot be negative");
+    }
+    this.time_budget_millis = timeBudgetMillis;
+  }
+
+  /**
+   * Returns how long finding the meeting times may take in milliseconds, or 0 if there is no
+   * limit.
+   */
+  public long getTimeBudgetMillis() {
+    return time_budget_millis;
   }
 
   /**
@@ -64,4 +266,37 @@ public final class MeetingRequest {
   public long getDuration() {
     return duration;
   }
+
+  /**
+   * Checks the values that Gson set without going through the setters, the same way the setters
+   * would. Call it on every request read from JSON.
+   *
+   * @throws IllegalArgumentException naming the first value that is out of range.
+   */
+  public void validate() {
+    if (duration < 0) {
+      throw new IllegalArgumentException("duration cannot be negative");
+    }
+    if (min_attendance < 0 || min_attendance > attendees.size()) {
+      throw new IllegalArgumentException(
+          "min_attendance must be between 0 and the number of attendees");
+    }
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit cannot be negative");
+    }
+    if (earliest_start < 0) {
+      throw new IllegalArgumentException("earliest_start cannot be negative");
+    }
+    if (preferred_start < 0 || preferred_end > TimeRange.WHOLE_DAY.end()
+        || preferred_end < preferred_start) {
+      throw new IllegalArgumentException(
+          "preferred_start and preferred_end must be inside of a day");
+    }
+    if (suggestions < 0) {
+      throw new IllegalArgumentException("suggestions cannot be negative");
+    }
+    if (time_budget_millis < 0) {
+      throw new IllegalArgumentException("time_budget_millis cannot be negative");
+    }
+  }
 }
@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A meeting time and how well it suits the preferences of the request it was found for. Scores
+ * are 0 when every preference is met and go down the more a time misses them.
+ */
+public final class MeetingSuggestion {
+  // Puts the worst suggestion first: the lowest score, and the latest start among equal scores.
+  static final Comparator<MeetingSuggestion> WORST_FIRST = new Comparator<MeetingSuggestion>() {
+    @Override
+    public int compare(MeetingSuggestion a, MeetingSuggestion b) {
+      int byScore = Integer.compare(a.score, b.score);
+      return byScore != 0 ? byScore : Integer.compare(b.when.start(), a.when.start());
+    }
+  };
+
+  private final TimeRange when;
+  private final int score;
+
+  MeetingSuggestion(TimeRange when, int score) {
+    this.when = when;
+    this.score = score;
+  }
+
+  /**
+   * Returns the time of the meeting.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns how well the time suits the preferences, where 0 is best.
+   */
+  public int getScore() {
+    return score;
+  }
+
+  @Override
+  public String toString() {
+    return when + " scored " + score;
+  }
+}
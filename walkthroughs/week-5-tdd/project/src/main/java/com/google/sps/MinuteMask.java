@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bitmap with one bit for every minute of the day, where a set bit means that minute is busy.
+ * Combining the schedules of several people is a bitwise OR, and finding free time is a scan over
+ * 23 words instead of a sort over every event. Masks are mutable and not thread-safe.
+ */
+public final class MinuteMask {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int WORDS = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+  private final long[] words = new long[WORDS];
+
+  /**
+   * Marks every minute of {@code range} as busy. The parts of the range that fall outside of the
+   * day are ignored.
+   */
+  public void add(TimeRange range) {
+    int from = Math.max(range.start(), TimeRange.START_OF_DAY);
+    int to = Math.min(range.end(), MINUTES_PER_DAY);
+    if (from >= to) {
+      return;
+    }
+
+    int firstWord = from >>> 6;
+    int lastWord = (to - 1) >>> 6;
+    long firstMask = -1L << from;
+    long lastMask = -1L >>> (Long.SIZE - 1 - ((to - 1) & 63));
+    if (firstWord == lastWord) {
+      words[firstWord] |= firstMask & lastMask;
+      return;
+    }
+    words[firstWord] |= firstMask;
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      words[i] = -1L;
+    }
+    words[lastWord] |= lastMask;
+  }
+
+  /**
+   * Marks every minute that is busy in {@code other} as busy in this mask too.
+   */
+  public void or(MinuteMask other) {
+    for (int i = 0; i < WORDS; i++) {
+      words[i] |= other.words[i];
+    }
+  }
+
+  /**
+   * Makes this mask busy at exactly the minutes {@code other} is busy.
+   */
+  public void copyFrom(MinuteMask other) {
+    System.arraycopy(other.words, 0, words, 0, WORDS);
+  }
+
+  /**
+   * Returns true if {@code minute} is busy.
+   */
+  public boolean isBusy(int minute) {
+    if (minute < TimeRange.START_OF_DAY || minute >= MINUTES_PER_DAY) {
+      return false;
+    }
+    return (words[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Returns a new mask with the same busy minutes as this one.
+   */
+  public MinuteMask copy() {
+    MinuteMask copy = new MinuteMask();
+    System.arraycopy(words, 0, copy.words, 0, WORDS);
+    return copy;
+  }
+
+  /**
+   * Returns the free ranges of the day that are at least {@code minDuration} minutes long, in
+   * ascending order.
+   */
+  public List<TimeRange> freeRanges(long minDuration) {
+    List<TimeRange> ranges = new ArrayList<>();
+    int start = nextFree(TimeRange.START_OF_DAY);
+    while (start < MINUTES_PER_DAY) {
+      int end = nextBusy(start);
+      if (end - start >= minDuration) {
+        ranges.add(TimeRange.fromStartEnd(start, end, false));
+      }
+      start = nextFree(end);
+    }
+    return ranges;
+  }
+
+  // Returns the first free minute at or after {@code from}, or the end of the day if there is none.
+  private int nextFree(int from) {
+    int i = from >>> 6;
+    if (i >= WORDS) {
+      return MINUTES_PER_DAY;
+    }
+    long word = ~words[i] & (-1L << from);
+    while (word == 0) {
+      if (++i == WORDS) {
+        return MINUTES_PER_DAY;
+      }
+      word = ~words[i];
+    }
+    return Math.min((i << 6) + Long.numberOfTrailingZeros(word), MINUTES_PER_DAY);
+  }
+
+  // Returns the first busy minute at or after {@code from}, or the end of the day if there is none.
+  private int nextBusy(int from) {
+    int i = from >>> 6;
+    if (i >= WORDS) {
+      return MINUTES_PER_DAY;
+    }
+    long word = words[i] & (-1L << from);
+    while (word == 0) {
+      if (++i == WORDS) {
+        return MINUTES_PER_DAY;
+      }
+      word = words[i];
+    }
+    return Math.min((i << 6) + Long.numberOfTrailingZeros(word), MINUTES_PER_DAY);
+  }
+}
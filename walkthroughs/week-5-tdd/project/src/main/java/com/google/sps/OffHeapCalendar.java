@@ -0,0 +1,230 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A calendar that keeps its busy times outside of the Java heap, in one direct buffer. The heap
+ * only holds a table from each attendee's name to where their busy times start, so the garbage
+ * collector has a handful of objects to look at however many events there are. Busy times are
+ * decoded into {@code TimeRange}s as queries read them, and those die young.
+ *
+ * <p>Every attendee's busy times are stored one after another, ordered by start, as records of
+ * three ints: the start, the end, and the latest end among the attendee's records so far. The
+ * latest end never goes down, so a binary search finds the first record that can reach into a
+ * window. Events without a duration don't keep anybody busy and are left out. The buffer holds at
+ * most 2GB of records. Off-heap calendars are read-only and safe to share between threads.
+ */
+public final class OffHeapCalendar implements CalendarView {
+  private static final int RECORD_BYTES = 3 * Integer.BYTES;
+  private static final int START = 0;
+  private static final int END = Integer.BYTES;
+  private static final int LATEST_END = 2 * Integer.BYTES;
+
+  private final Map<String, Integer> idsByName = new HashMap<>();
+
+  // The records of attendee id are the ones from firstRecord[id] up to firstRecord[id + 1].
+  private final int[] firstRecord;
+  private final ByteBuffer records;
+
+  /**
+   * Creates a calendar holding the busy times of {@code events}. Must be non-null.
+   */
+  public OffHeapCalendar(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    // Count the records of each attendee to know where each of them starts.
+    int[] counts = new int[16];
+    long total = 0;
+    for (Event event : events) {
+      if (event.getWhen().duration() <= 0) {
+        continue;
+      }
+      for (String attendee : event.getAttendees()) {
+        Integer id = idsByName.get(attendee);
+        if (id == null) {
+          id = idsByName.size();
+          idsByName.put(attendee, id);
+          if (id == counts.length) {
+            counts = Arrays.copyOf(counts, 2 * id);
+          }
+        }
+        counts[id]++;
+        total++;
+      }
+    }
+    if (total * RECORD_BYTES > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("too many busy times for one buffer: " + total);
+    }
+
+    firstRecord = new int[idsByName.size() + 1];
+    for (int id = 0; id < idsByName.size(); id++) {
+      firstRecord[id + 1] = firstRecord[id] + counts[id];
+    }
+    records = ByteBuffer.allocateDirect((int) total * RECORD_BYTES).order(ByteOrder.nativeOrder());
+
+    // Write each record at the next free place of its attendee, then sort each attendee's records.
+    int[] next = firstRecord.clone();
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      if (when.duration() <= 0) {
+        continue;
+      }
+      for (String attendee : event.getAttendees()) {
+        int offset = next[idsByName.get(attendee)]++ * RECORD_BYTES;
+        records.putInt(offset + START, when.start());
+        records.putInt(offset + END, when.end());
+      }
+    }
+    for (int id = 0; id < idsByName.size(); id++) {
+      sortAndIndex(firstRecord[id], firstRecord[id + 1]);
+    }
+  }
+
+  /**
+   * Returns how many attendees the calendar knows about.
+   */
+  public int getAttendeeCount() {
+    return idsByName.size();
+  }
+
+  /**
+   * Returns how many bytes the busy times take up outside of the heap.
+   */
+  public long getOffHeapBytes() {
+    return records.capacity();
+  }
+
+  @Override
+  public int estimateBusyTimes(String attendee) {
+    Integer id = idsByName.get(attendee);
+    return id == null ? 0 : firstRecord[id + 1] - firstRecord[id];
+  }
+
+  /**
+   * Returns the busy times of {@code attendee}, ordered by start.
+   */
+  @Override
+  public Collection<TimeRange> getBusyTimes(String attendee) {
+    Integer id = idsByName.get(attendee);
+    if (id == null) {
+      return Collections.emptyList();
+    }
+    List<TimeRange> busyTimes = new ArrayList<>(firstRecord[id + 1] - firstRecord[id]);
+    for (int i = firstRecord[id]; i < firstRecord[id + 1]; i++) {
+      busyTimes.add(toTimeRange(i));
+    }
+    return busyTimes;
+  }
+
+  /**
+   * Returns the busy times of {@code attendee} that overlap {@code window}, ordered by start.
+   * Finding the first one takes O(log n) time; the rest are decoded as they are iterated over.
+   */
+  @Override
+  public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+    Integer id = idsByName.get(attendee);
+    if (id == null) {
+      return Collections.emptyList();
+    }
+
+    // Skip every record that ends before the window starts.
+    int low = firstRecord[id];
+    int high = firstRecord[id + 1];
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (records.getInt(middle * RECORD_BYTES + LATEST_END) > window.start()) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    int first = low;
+    int last = firstRecord[id + 1];
+    return () -> new Iterator<TimeRange>() {
+      private int next = advance(first);
+
+      @Override
+      public boolean hasNext() {
+        return next < last;
+      }
+
+      @Override
+      public TimeRange next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        TimeRange busy = toTimeRange(next);
+        next = advance(next + 1);
+        return busy;
+      }
+
+      // Returns the next record at or after i that overlaps the window, or last if there is none.
+      private int advance(int i) {
+        for (; i < last; i++) {
+          if (records.getInt(i * RECORD_BYTES + START) >= window.end()) {
+            return last;
+          }
+          if (records.getInt(i * RECORD_BYTES + END) > window.start()) {
+            return i;
+          }
+        }
+        return last;
+      }
+    };
+  }
+
+  private TimeRange toTimeRange(int record) {
+    int start = records.getInt(record * RECORD_BYTES + START);
+    int end = records.getInt(record * RECORD_BYTES + END);
+    return TimeRange.fromStartEnd(start, end, false);
+  }
+
+  // Sorts the records from first up to last by start and fills in their latest ends. The start
+  // and end are packed into a long, which sorts by start and then by end, so the sort runs on a
+  // primitive array no bigger than one attendee's events.
+  private void sortAndIndex(int first, int last) {
+    long[] packed = new long[last - first];
+    for (int i = 0; i < packed.length; i++) {
+      int offset = (first + i) * RECORD_BYTES;
+      packed[i] = ((long) records.getInt(offset + START) << 32)
+          | (records.getInt(offset + END) & 0xFFFFFFFFL);
+    }
+    Arrays.sort(packed);
+
+    int latestEnd = Integer.MIN_VALUE;
+    for (int i = 0; i < packed.length; i++) {
+      int offset = (first + i) * RECORD_BYTES;
+      int end = (int) packed[i];
+      latestEnd = Math.max(latestEnd, end);
+      records.putInt(offset + START, (int) (packed[i] >> 32));
+      records.putInt(offset + END, end);
+      records.putInt(offset + LATEST_END, latestEnd);
+    }
+  }
+}
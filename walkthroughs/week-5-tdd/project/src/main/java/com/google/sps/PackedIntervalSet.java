@@ -0,0 +1,244 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of [start, end) intervals packed into a {@code long[]}, with the start in the high 32 bits
+ * and the end in the low 32 bits. Sorting the longs sorts the intervals by start, and every
+ * operation works in place, so a set can be cleared and reused without allocating. Only the final
+ * answer of a query needs to be turned into {@code TimeRange}s.
+ *
+ * <p>{@link #complement} and {@link #intersect} expect the sets to be merged first. Sets are
+ * mutable and not thread-safe.
+ */
+public final class PackedIntervalSet {
+  private long[] intervals;
+  private int size;
+
+  // Spare room for operations that can't write their result over their input.
+  private long[] spare = new long[0];
+
+  public PackedIntervalSet() {
+    this(16);
+  }
+
+  public PackedIntervalSet(int capacity) {
+    intervals = new long[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Adds the interval [start, end). Empty intervals are ignored.
+   */
+  public void add(int start, int end) {
+    if (end <= start) {
+      return;
+    }
+    ensureCapacity(size + 1);
+    intervals[size++] = pack(start, end);
+  }
+
+  /**
+   * Adds the span of time covered by {@code range}.
+   */
+  public void add(TimeRange range) {
+    add(range.start(), range.end());
+  }
+
+  /**
+   * Adds every interval of {@code other}.
+   */
+  public void addAll(PackedIntervalSet other) {
+    ensureCapacity(size + other.size);
+    System.arraycopy(other.intervals, 0, intervals, size, other.size);
+    size += other.size;
+  }
+
+  /**
+   * Replaces the intervals of this set with the intervals of {@code other}.
+   */
+  public void copyFrom(PackedIntervalSet other) {
+    size = 0;
+    addAll(other);
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the start of the {@code i}th interval.
+   */
+  public int start(int i) {
+    return start(intervals[i]);
+  }
+
+  /**
+   * Returns the end of the {@code i}th interval. This is the closing exclusive bound.
+   */
+  public int end(int i) {
+    return end(intervals[i]);
+  }
+
+  /**
+   * Sorts the intervals by start and joins the ones that overlap or touch, so that the set is an
+   * ascending list of disjoint intervals.
+   */
+  public void merge() {
+    sort();
+    mergeSorted();
+  }
+
+  /**
+   * Sorts the intervals by start, and intervals with the same start by end.
+   */
+  public void sort() {
+    Arrays.sort(intervals, 0, size);
+  }
+
+  /**
+   * Same as {@link #merge()} for a set that is already sorted.
+   */
+  public void mergeSorted() {
+    int merged = 0;
+    for (int i = 0; i < size; i++) {
+      int start = start(intervals[i]);
+      int end = end(intervals[i]);
+      if (merged > 0 && start <= end(intervals[merged - 1])) {
+        int previousEnd = end(intervals[merged - 1]);
+        intervals[merged - 1] = pack(start(intervals[merged - 1]), Math.max(previousEnd, end));
+      } else {
+        intervals[merged++] = pack(start, end);
+      }
+    }
+    size = merged;
+  }
+
+  /**
+   * Replaces the intervals with the gaps between them inside [windowStart, windowEnd). The set must
+   * be merged.
+   */
+  public void complement(int windowStart, int windowEnd) {
+    ensureCapacity(size + 1);
+    int gaps = 0;
+    int freeSince = windowStart;
+    for (int i = 0; i < size && freeSince < windowEnd; i++) {
+      // Read the interval before writing, since the gaps are written over the intervals.
+      int start = start(intervals[i]);
+      int end = end(intervals[i]);
+      if (start > freeSince) {
+        intervals[gaps++] = pack(freeSince, Math.min(start, windowEnd));
+      }
+      freeSince = Math.max(freeSince, end);
+    }
+    if (freeSince < windowEnd) {
+      intervals[gaps++] = pack(freeSince, windowEnd);
+    }
+    size = gaps;
+  }
+
+  /**
+   * Keeps only the parts of the intervals that are also covered by {@code other}. Both sets must
+   * be merged.
+   */
+  public void intersect(PackedIntervalSet other) {
+    if (spare.length < size + other.size) {
+      spare = new long[Math.max(size + other.size, intervals.length)];
+    }
+
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      int start = Math.max(start(intervals[i]), start(other.intervals[j]));
+      int end = Math.min(end(intervals[i]), end(other.intervals[j]));
+      if (start < end) {
+        spare[count++] = pack(start, end);
+      }
+      // Move past whichever interval ends first; the other one may still overlap the next.
+      if (end(intervals[i]) < end(other.intervals[j])) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+
+    long[] result = spare;
+    spare = intervals;
+    intervals = result;
+    size = count;
+  }
+
+  /**
+   * Drops every interval that is shorter than {@code minLength}.
+   */
+  public void removeShorterThan(long minLength) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      long interval = intervals[i];
+      if ((long) end(interval) - start(interval) >= minLength) {
+        intervals[kept++] = interval;
+      }
+    }
+    size = kept;
+  }
+
+  /**
+   * Drops every interval after the first {@code count}.
+   */
+  public void keepFirst(int count) {
+    size = Math.min(size, Math.max(count, 0));
+  }
+
+  /**
+   * Returns the intervals as a new list of {@code TimeRange}s.
+   */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> ranges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ranges.add(TimeRange.fromStartEnd(start(intervals[i]), end(intervals[i]), false));
+    }
+    return ranges;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > intervals.length) {
+      intervals = Arrays.copyOf(intervals, Math.max(capacity, intervals.length * 2));
+    }
+  }
+
+  private static long pack(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
+
+  private static int start(long interval) {
+    return (int) (interval >> 32);
+  }
+
+  private static int end(long interval) {
+    return (int) interval;
+  }
+}
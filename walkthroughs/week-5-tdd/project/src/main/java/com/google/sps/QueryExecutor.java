@@ -0,0 +1,158 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs queries on a pool of its own, so that the threads of the servlet container don't limit how
+ * many queries are in flight. At most a fixed number of queries run at once and a fixed number
+ * wait; anything past that is rejected straight away rather than piling up. The executor keeps
+ * track of how deep its queue gets, to help pick the limits.
+ *
+ * <p>Each running query holds one platform thread of the pool for as long as it runs, waiting on
+ * storage included, so the number of threads is what bounds how many queries are in flight. Pick
+ * it for how long queries wait rather than for the number of cores. A query can be given a
+ * deadline, and one whose deadline passes while it waits in the queue is skipped instead of run.
+ */
+public final class QueryExecutor implements Executor {
+  // Idle threads go away after this long, so a quiet server doesn't hold on to them.
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final ThreadPoolExecutor pool;
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxQueued = new AtomicInteger();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+
+  /**
+   * Creates an executor that runs up to {@code maxConcurrent} queries at once and holds up to
+   * {@code maxQueued} more.
+   */
+  public QueryExecutor(int maxConcurrent, int maxQueued) {
+    if (maxConcurrent <= 0) {
+      throw new IllegalArgumentException("maxConcurrent must be positive");
+    }
+    if (maxQueued <= 0) {
+      throw new IllegalArgumentException("maxQueued must be positive");
+    }
+
+    AtomicInteger threads = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueued), runnable -> {
+          Thread thread = new Thread(runnable, "query-" + threads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    pool.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Runs {@code query} once a thread is free.
+   *
+   * @throws RejectedExecutionException if the queue is full or the executor was shut down.
+   */
+  @Override
+  public void execute(Runnable query) {
+    execute(query, Long.MAX_VALUE);
+  }
+
+  /**
+   * Runs {@code query} once a thread is free, unless {@link System#nanoTime()} has reached
+   * {@code deadlineNanos} by then, in which case it is skipped. {@code Long.MAX_VALUE} means that
+   * there is no deadline.
+   *
+   * @throws RejectedExecutionException if the queue is full or the executor was shut down.
+   */
+  public void execute(Runnable query, long deadlineNanos) {
+    try {
+      pool.execute(() -> {
+        // Subtracting keeps the comparison right when nanoTime wraps around.
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0) {
+          expired.incrementAndGet();
+          return;
+        }
+        running.incrementAndGet();
+        try {
+          query.run();
+        } finally {
+          running.decrementAndGet();
+          completed.incrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.incrementAndGet();
+      throw e;
+    }
+    maxQueued.accumulateAndGet(pool.getQueue().size(), Math::max);
+  }
+
+  /**
+   * Returns how many queries are running right now.
+   */
+  public int getRunning() {
+    return running.get();
+  }
+
+  /**
+   * Returns how many queries are waiting for a thread right now.
+   */
+  public int getQueued() {
+    return pool.getQueue().size();
+  }
+
+  /**
+   * Returns the most queries that have been waiting for a thread at once.
+   */
+  public int getMaxQueued() {
+    return maxQueued.get();
+  }
+
+  /**
+   * Returns how many queries have finished, whether they succeeded or not.
+   */
+  public long getCompleted() {
+    return completed.get();
+  }
+
+  /**
+   * Returns how many queries were skipped because their deadline passed while they were queued.
+   * They don't count as completed.
+   */
+  public long getExpired() {
+    return expired.get();
+  }
+
+  /**
+   * Returns how many queries were turned away, because the queue was full or after a shutdown.
+   */
+  public long getRejected() {
+    return rejected.get();
+  }
+
+  /**
+   * Stops taking queries. Queries already taken still run.
+   */
+  public void shutdown() {
+    pool.shutdown();
+  }
+}
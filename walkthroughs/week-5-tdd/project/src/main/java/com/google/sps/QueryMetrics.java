@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Histograms of the {@link QueryStats} of every query a {@link FindMeetingQuery} ran, and of how
+ * long whole requests took by the route that answered them. Recording is lock-free and, once a
+ * route has been seen, doesn't allocate, so it can stay on for every query.
+ */
+public final class QueryMetrics {
+  private static final QueryMetrics GLOBAL = new QueryMetrics();
+
+  private final LogHistogram eventsScanned = new LogHistogram();
+  private final LogHistogram attendeeMatches = new LogHistogram();
+  private final LogHistogram intervalsBeforeMerge = new LogHistogram();
+  private final LogHistogram intervalsAfterMerge = new LogHistogram();
+  private final LogHistogram slots = new LogHistogram();
+  private final LogHistogram collectNanos = new LogHistogram();
+  private final LogHistogram sortNanos = new LogHistogram();
+  private final LogHistogram mergeNanos = new LogHistogram();
+  private final LogHistogram slotScanNanos = new LogHistogram();
+  private final LogHistogram totalNanos = new LogHistogram();
+
+  // How long requests took by route, created when a route is first recorded.
+  private final ConcurrentMap<String, LogHistogram> requestNanos = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the metrics that the servlets of the app share.
+   */
+  public static QueryMetrics global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Adds the stats of one query to the histograms.
+   */
+  public void record(QueryStats stats) {
+    eventsScanned.record(stats.getEventsScanned());
+    attendeeMatches.record(stats.getAttendeeMatches());
+    intervalsBeforeMerge.record(stats.getIntervalsBeforeMerge());
+    intervalsAfterMerge.record(stats.getIntervalsAfterMerge());
+    slots.record(stats.getSlots());
+    collectNanos.record(stats.getCollectNanos());
+    sortNanos.record(stats.getSortNanos());
+    mergeNanos.record(stats.getMergeNanos());
+    slotScanNanos.record(stats.getSlotScanNanos());
+    totalNanos.record(stats.getTotalNanos());
+  }
+
+  /**
+   * Adds how long one request took to the histogram of {@code route}, the way it was answered.
+   */
+  public void recordRequest(String route, long nanos) {
+    requestNanos.computeIfAbsent(route, name -> new LogHistogram()).record(nanos);
+  }
+
+  /**
+   * Returns a read-only map from every route recorded so far to the histogram of how long its
+   * requests took, sorted by route.
+   */
+  public Map<String, LogHistogram> getRequestHistograms() {
+    return Collections.unmodifiableMap(new TreeMap<>(requestNanos));
+  }
+
+  /**
+   * Returns a read-only map from the name of every metric to its histogram, in a fixed order.
+   */
+  public Map<String, LogHistogram> getHistograms() {
+    Map<String, LogHistogram> histograms = new LinkedHashMap<>();
+    histograms.put("events_scanned", eventsScanned);
+    histograms.put("attendee_matches", attendeeMatches);
+    histograms.put("intervals_before_merge", intervalsBeforeMerge);
+    histograms.put("intervals_after_merge", intervalsAfterMerge);
+    histograms.put("slots", slots);
+    histograms.put("collect_nanos", collectNanos);
+    histograms.put("sort_nanos", sortNanos);
+    histograms.put("merge_nanos", mergeNanos);
+    histograms.put("slot_scan_nanos", slotScanNanos);
+    histograms.put("total_nanos", totalNanos);
+    return Collections.unmodifiableMap(histograms);
+  }
+}
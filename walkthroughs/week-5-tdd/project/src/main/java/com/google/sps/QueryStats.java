@@ -0,0 +1,156 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * What one run of {@link FindMeetingQuery} did: how much it read, how many intervals it merged,
+ * how many slots it found, and how long each phase took. Stats are reused from one query to the
+ * next, so recording them doesn't allocate; copy them to keep them. Not thread-safe.
+ */
+public final class QueryStats {
+  private long events_scanned;
+  private long attendee_matches;
+  private long intervals_before_merge;
+  private long intervals_after_merge;
+  private long slots;
+  private long collect_nanos;
+  private long sort_nanos;
+  private long merge_nanos;
+  private long slot_scan_nanos;
+
+  /**
+   * Sets every count and time back to 0.
+   */
+  public void reset() {
+    events_scanned = 0;
+    attendee_matches = 0;
+    intervals_before_merge = 0;
+    intervals_after_merge = 0;
+    slots = 0;
+    collect_nanos = 0;
+    sort_nanos = 0;
+    merge_nanos = 0;
+    slot_scan_nanos = 0;
+  }
+
+  /**
+   * Makes these stats the same as {@code other}.
+   */
+  public void copyFrom(QueryStats other) {
+    events_scanned = other.events_scanned;
+    attendee_matches = other.attendee_matches;
+    intervals_before_merge = other.intervals_before_merge;
+    intervals_after_merge = other.intervals_after_merge;
+    slots = other.slots;
+    collect_nanos = other.collect_nanos;
+    sort_nanos = other.sort_nanos;
+    merge_nanos = other.merge_nanos;
+    slot_scan_nanos = other.slot_scan_nanos;
+  }
+
+  void addCollect(long eventsScanned, long attendeeMatches, long nanos) {
+    events_scanned += eventsScanned;
+    attendee_matches += attendeeMatches;
+    collect_nanos += nanos;
+  }
+
+  void addSort(long nanos) {
+    sort_nanos += nanos;
+  }
+
+  void addMerge(long intervalsBefore, long intervalsAfter, long nanos) {
+    intervals_before_merge += intervalsBefore;
+    intervals_after_merge += intervalsAfter;
+    merge_nanos += nanos;
+  }
+
+  void addSlotScan(long nanos) {
+    slot_scan_nanos += nanos;
+  }
+
+  void setSlots(long slots) {
+    this.slots = slots;
+  }
+
+  /**
+   * Returns how many events or busy times the query looked at.
+   */
+  public long getEventsScanned() {
+    return events_scanned;
+  }
+
+  /**
+   * Returns how many of them belonged to somebody in the request.
+   */
+  public long getAttendeeMatches() {
+    return attendee_matches;
+  }
+
+  /**
+   * Returns how many busy intervals there were before merging, summed over every merge.
+   */
+  public long getIntervalsBeforeMerge() {
+    return intervals_before_merge;
+  }
+
+  /**
+   * Returns how many busy intervals were left after merging, summed over every merge.
+   */
+  public long getIntervalsAfterMerge() {
+    return intervals_after_merge;
+  }
+
+  /**
+   * Returns how many meeting times the query returned.
+   */
+  public long getSlots() {
+    return slots;
+  }
+
+  /**
+   * Returns the nanoseconds spent reading busy times.
+   */
+  public long getCollectNanos() {
+    return collect_nanos;
+  }
+
+  /**
+   * Returns the nanoseconds spent sorting busy intervals.
+   */
+  public long getSortNanos() {
+    return sort_nanos;
+  }
+
+  /**
+   * Returns the nanoseconds spent joining sorted busy intervals.
+   */
+  public long getMergeNanos() {
+    return merge_nanos;
+  }
+
+  /**
+   * Returns the nanoseconds spent finding the free slots between busy intervals.
+   */
+  public long getSlotScanNanos() {
+    return slot_scan_nanos;
+  }
+
+  /**
+   * Returns the nanoseconds of every phase together.
+   */
+  public long getTotalNanos() {
+    return collect_nanos + sort_nanos + merge_nanos + slot_scan_nanos;
+  }
+}
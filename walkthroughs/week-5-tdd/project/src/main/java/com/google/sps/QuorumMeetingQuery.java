@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds the meeting times that at least {@link MeetingRequest#getMinAttendance()} of the required
+ * attendees can make. Different meetings may suit different people, as long as enough of them are
+ * free for each one. Optional attendees are not considered.
+ */
+public final class QuorumMeetingQuery {
+
+  /**
+   * Finds the meeting times during the day.
+   */
+  public List<TimeRange> query(CalendarView calendar, MeetingRequest request) {
+    return query(calendar, request, TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Finds the meeting times inside {@code window}, as maximal ranges in ascending order. Every
+   * meeting of the requested duration that fits inside one of them works for enough attendees.
+   */
+  public List<TimeRange> query(CalendarView calendar, MeetingRequest request, TimeRange window) {
+    Collection<String> attendees = request.getAttendees();
+    int minAttendance = request.getMinAttendance() == 0
+        ? attendees.size() : request.getMinAttendance();
+
+    // Every attendee counts once, so the sweep counts how many people can't make each start time.
+    StartTimeSweep sweep = new StartTimeSweep(window, request.getDuration());
+    for (String attendee : attendees) {
+      sweep.addAttendee(calendar.getBusyTimes(attendee, window), 1);
+    }
+    return sweep.slots(attendees.size() - minAttendance);
+  }
+}
@@ -0,0 +1,157 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * A calendar of one-off events together with recurring ones. The occurrences of recurring events
+ * are only worked out inside the window a query asks about, and are merged with the one-off busy
+ * times as they are read. Times are in minutes since the epoch (UTC). Recurring calendars are
+ * read-only, and safe to share between threads if the calendar of one-off events is.
+ *
+ * <p>Recurring events can have any number of occurrences, so asking for every busy time of an
+ * attendee without a window only expands them inside the horizon the calendar was created with.
+ */
+public final class RecurringCalendar implements CalendarView {
+  private final CalendarView oneOffEvents;
+  private final Map<String, List<RecurringEvent>> recurringByAttendee = new HashMap<>();
+  private final TimeRange horizon;
+
+  /**
+   * Creates a calendar from the busy times in {@code oneOffEvents} and {@code recurringEvents}.
+   * {@link #getBusyTimes(String)} only has the occurrences of recurring events that overlap
+   * {@code horizon}, such as the days that queries will ask about. All of them must be non-null.
+   */
+  public RecurringCalendar(CalendarView oneOffEvents, Collection<RecurringEvent> recurringEvents,
+      TimeRange horizon) {
+    if (oneOffEvents == null || recurringEvents == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+    if (horizon == null) {
+      throw new IllegalArgumentException("horizon cannot be null");
+    }
+
+    this.oneOffEvents = oneOffEvents;
+    this.horizon = horizon;
+    for (RecurringEvent event : recurringEvents) {
+      for (String attendee : event.getAttendees()) {
+        recurringByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+      }
+    }
+  }
+
+  /**
+   * Returns every one-off busy time of {@code attendee}, and the occurrences of their recurring
+   * events that overlap the horizon of the calendar. Occurrences outside of the horizon are left
+   * out however the rule ends; ask for the busy times inside a window to see them.
+   */
+  @Override
+  public Collection<TimeRange> getBusyTimes(String attendee) {
+    List<RecurringEvent> recurring = recurringByAttendee.get(attendee);
+    if (recurring == null) {
+      return oneOffEvents.getBusyTimes(attendee);
+    }
+
+    List<TimeRange> busyTimes = new ArrayList<>(oneOffEvents.getBusyTimes(attendee));
+    for (RecurringEvent event : recurring) {
+      for (TimeRange occurrence : event.occurrences(horizon)) {
+        busyTimes.add(occurrence);
+      }
+    }
+    return Collections.unmodifiableList(busyTimes);
+  }
+
+  /**
+   * Returns the busy times of {@code attendee} that overlap {@code window}, ordered by start. The
+   * occurrences of recurring events are computed while they are iterated over.
+   */
+  @Override
+  public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+    List<RecurringEvent> recurring = recurringByAttendee.get(attendee);
+    if (recurring == null) {
+      return oneOffEvents.getBusyTimes(attendee, window);
+    }
+
+    return () -> {
+      List<Iterator<TimeRange>> sources = new ArrayList<>();
+      sources.add(oneOffEvents.getBusyTimes(attendee, window).iterator());
+      for (RecurringEvent event : recurring) {
+        sources.add(event.occurrences(window).iterator());
+      }
+      return new MergingIterator(sources);
+    };
+  }
+
+  /**
+   * Merges iterators that are each ordered by start into one that is.
+   */
+  private static final class MergingIterator implements Iterator<TimeRange> {
+    private final PriorityQueue<Source> sources = new PriorityQueue<>();
+
+    MergingIterator(List<Iterator<TimeRange>> iterators) {
+      for (Iterator<TimeRange> iterator : iterators) {
+        if (iterator.hasNext()) {
+          sources.add(new Source(iterator));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !sources.isEmpty();
+    }
+
+    @Override
+    public TimeRange next() {
+      Source source = sources.poll();
+      if (source == null) {
+        throw new NoSuchElementException();
+      }
+      TimeRange current = source.head;
+      if (source.iterator.hasNext()) {
+        source.head = source.iterator.next();
+        sources.add(source);
+      }
+      return current;
+    }
+
+    /**
+     * An iterator and the range it returned last, which hasn't been merged yet.
+     */
+    private static final class Source implements Comparable<Source> {
+      private final Iterator<TimeRange> iterator;
+      private TimeRange head;
+
+      Source(Iterator<TimeRange> iterator) {
+        this.iterator = iterator;
+        this.head = iterator.next();
+      }
+
+      @Override
+      public int compareTo(Source other) {
+        return TimeRange.ORDER_BY_START.compare(head, other.head);
+      }
+    }
+  }
+}
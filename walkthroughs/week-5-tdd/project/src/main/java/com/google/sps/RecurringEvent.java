@@ -0,0 +1,261 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An event that repeats every few days, weeks or months. Times are in minutes since the epoch
+ * (UTC). Occurrences are never stored: {@link #occurrences(TimeRange)} works out the ones inside a
+ * window as they are iterated over, so a rule that repeats forever costs no more than one that
+ * doesn't. Recurring events are read-only.
+ */
+public final class RecurringEvent {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int SECONDS_PER_MINUTE = 60;
+  private static final int MIN_DAYS_PER_MONTH = 28;
+
+  /**
+   * How often an event repeats.
+   */
+  public enum Frequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+  }
+
+  private final String title;
+  private final TimeRange first;
+  private final AttendeeSet attendees;
+  private final Frequency frequency;
+  private final int interval;
+
+  // How many occurrences there are, or 0 if the count doesn't end the rule.
+  private final int count;
+
+  // No occurrence starts after this minute.
+  private final int until;
+
+  // The starts of the occurrences that were cancelled, sorted.
+  private final int[] exceptions;
+
+  /**
+   * Creates an event that repeats forever.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The first occurrence of the event. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param frequency Whether the event repeats by days, weeks or months. Must be non-null.
+   * @param interval How many days, weeks or months there are between occurrences. Must be positive.
+   */
+  public RecurringEvent(String title, TimeRange first, Collection<String> attendees,
+      Frequency frequency, int interval) {
+    this(title, first, AttendeeSet.of(checkNotNull(attendees, "attendees")), frequency, interval,
+        0, Integer.MAX_VALUE, new int[0]);
+  }
+
+  private RecurringEvent(String title, TimeRange first, AttendeeSet attendees,
+      Frequency frequency, int interval, int count, int until, int[] exceptions) {
+    checkNotNull(title, "title");
+    checkNotNull(first, "first");
+    checkNotNull(frequency, "frequency");
+    if (interval <= 0) {
+      throw new IllegalArgumentException("interval must be positive");
+    }
+
+    this.title = title;
+    this.first = first;
+    this.attendees = attendees;
+    this.frequency = frequency;
+    this.interval = interval;
+    this.count = count;
+    this.until = until;
+    this.exceptions = exceptions;
+  }
+
+  /**
+   * Returns a copy of this event that stops after {@code count} occurrences, cancelled ones
+   * included.
+   */
+  public RecurringEvent withCount(int count) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("count must be positive");
+    }
+    return new RecurringEvent(
+        title, first, attendees, frequency, interval, count, until, exceptions);
+  }
+
+  /**
+   * Returns a copy of this event with no occurrences starting after the minute {@code until}.
+   */
+  public RecurringEvent withUntil(int until) {
+    return new RecurringEvent(
+        title, first, attendees, frequency, interval, count, until, exceptions);
+  }
+
+  /**
+   * Returns a copy of this event without the occurrences that start at {@code starts}.
+   */
+  public RecurringEvent withExceptions(Collection<Integer> starts) {
+    int[] sorted = new int[exceptions.length + starts.size()];
+    System.arraycopy(exceptions, 0, sorted, 0, exceptions.length);
+    int i = exceptions.length;
+    for (int start : starts) {
+      sorted[i++] = start;
+    }
+    Arrays.sort(sorted);
+    return new RecurringEvent(title, first, attendees, frequency, interval, count, until, sorted);
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the first occurrence of this event.
+   */
+  public TimeRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return attendees;
+  }
+
+  /**
+   * Returns true if the event stops repeating at some point.
+   */
+  public boolean isBounded() {
+    return count > 0 || until != Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the occurrences that overlap {@code window}, ordered by start. They are computed while
+   * they are iterated over, and skip straight to the window. The one exception is a monthly rule
+   * that ends after a count and falls on a day that some months don't have: skipped months don't
+   * count, so it is walked from its first occurrence, which takes at most as long as its count.
+   */
+  public Iterable<TimeRange> occurrences(TimeRange window) {
+    return () -> new OccurrenceIterator(window);
+  }
+
+  // Returns the start of occurrence i, or Long.MIN_VALUE if that month doesn't have the day of the
+  // first occurrence. Monthly events skip such months, the way iCalendar does.
+  private long startOf(long i) {
+    switch (frequency) {
+      case DAILY:
+        return first.start() + i * interval * MINUTES_PER_DAY;
+      case WEEKLY:
+        return first.start() + i * interval * 7L * MINUTES_PER_DAY;
+      default:
+        LocalDateTime start = LocalDateTime.ofEpochSecond(
+            (long) first.start() * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+        LocalDateTime occurrence = start.plusMonths(i * interval);
+        if (occurrence.getDayOfMonth() != start.getDayOfMonth()) {
+          return Long.MIN_VALUE;
+        }
+        return occurrence.toEpochSecond(ZoneOffset.UTC) / SECONDS_PER_MINUTE;
+    }
+  }
+
+  // Returns an index no later than that of the first occurrence that may overlap a window starting
+  // at windowStart.
+  private long firstIndexFor(int windowStart) {
+    if (frequency == Frequency.MONTHLY) {
+      LocalDateTime start = LocalDateTime.ofEpochSecond(
+          (long) first.start() * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+      if (count > 0 && start.getDayOfMonth() > MIN_DAYS_PER_MONTH) {
+        return 0;
+      }
+      // Occurrence i starts no later than i * interval whole months after the first one.
+      LocalDateTime target = LocalDateTime.ofEpochSecond(
+          ((long) windowStart - first.duration()) * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+      return Math.max(0, ChronoUnit.MONTHS.between(start, target) / interval);
+    }
+    long period = (long) interval * MINUTES_PER_DAY * (frequency == Frequency.WEEKLY ? 7 : 1);
+    return Math.max(0, Math.floorDiv((long) windowStart - first.end() - 1, period));
+  }
+
+  /**
+   * Walks the occurrences from the first one that may overlap the window up to its end.
+   */
+  private final class OccurrenceIterator implements Iterator<TimeRange> {
+    private final TimeRange window;
+    private long index;
+    // How many occurrences come before the one at index. Skipped months don't count.
+    private long counted;
+    private TimeRange next;
+
+    OccurrenceIterator(TimeRange window) {
+      this.window = window;
+      this.index = firstIndexFor(window.start());
+      this.counted = index;
+      this.next = findNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public TimeRange next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      TimeRange current = next;
+      next = findNext();
+      return current;
+    }
+
+    private TimeRange findNext() {
+      while (count == 0 || counted < count) {
+        long start = startOf(index++);
+        if (start == Long.MIN_VALUE) {
+          continue;
+        }
+        counted++;
+        if (start > until || start >= window.end()) {
+          return null;
+        }
+        long end = start + first.duration();
+        if (end > window.start() && Arrays.binarySearch(exceptions, (int) start) < 0) {
+          return TimeRange.fromStartDuration((int) start, first.duration());
+        }
+      }
+      return null;
+    }
+  }
+
+  private static <T> T checkNotNull(T value, String name) {
+    if (value == null) {
+      throw new IllegalArgumentException(name + " cannot be null");
+    }
+    return value;
+  }
+}
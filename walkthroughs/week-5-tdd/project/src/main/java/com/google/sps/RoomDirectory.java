@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rooms meetings can be held in, and when each of them is booked during the day. Every room
+ * keeps its bookings as a {@link MinuteMask}, so checking a room costs the same however many
+ * events it has. Rooms are kept in order of capacity, which lets a query skip every room that is
+ * too small without looking at it. Directories are not thread-safe.
+ */
+public final class RoomDirectory {
+  private static final Comparator<Room> ORDER_BY_CAPACITY = new Comparator<Room>() {
+    @Override
+    public int compare(Room a, Room b) {
+      return Integer.compare(a.getCapacity(), b.getCapacity());
+    }
+  };
+
+  private final List<Room> rooms;
+  private final MinuteMask[] bookings;
+  private final Map<String, Integer> indexByName = new HashMap<>();
+
+  /**
+   * Creates a directory of {@code rooms}, none of which are booked yet. Room names must be unique.
+   */
+  public RoomDirectory(Collection<Room> rooms) {
+    this.rooms = new ArrayList<>(rooms);
+    Collections.sort(this.rooms, ORDER_BY_CAPACITY);
+    this.bookings = new MinuteMask[this.rooms.size()];
+    for (int i = 0; i < bookings.length; i++) {
+      String name = this.rooms.get(i).getName();
+      if (indexByName.put(name, i) != null) {
+        throw new IllegalArgumentException("room " + name + " is listed twice");
+      }
+      bookings[i] = new MinuteMask();
+    }
+  }
+
+  /**
+   * Creates a directory of {@code rooms} booked whenever {@code calendar} has them busy during the
+   * day. Rooms are booked the way people are invited: by being an attendee of an event.
+   */
+  public static RoomDirectory fromCalendar(Collection<Room> rooms, CalendarView calendar) {
+    RoomDirectory directory = new RoomDirectory(rooms);
+    for (Room room : directory.rooms) {
+      for (TimeRange busy : calendar.getBusyTimes(room.getName(), TimeRange.WHOLE_DAY)) {
+        directory.book(room.getName(), busy);
+      }
+    }
+    return directory;
+  }
+
+  /**
+   * Marks the room named {@code room} as booked during {@code when}.
+   */
+  public void book(String room, TimeRange when) {
+    Integer index = indexByName.get(room);
+    if (index == null) {
+      throw new IllegalArgumentException("unknown room " + room);
+    }
+    bookings[index].add(when);
+  }
+
+  /**
+   * Returns the number of rooms.
+   */
+  public int size() {
+    return rooms.size();
+  }
+
+  // Returns the index of the smallest room that fits {@code people}, or size() if none does.
+  int firstFitting(int people) {
+    int low = 0;
+    int high = rooms.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (rooms.get(middle).getCapacity() < people) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // Rooms are indexed in order of capacity.
+  Room room(int index) {
+    return rooms.get(index);
+  }
+
+  MinuteMask bookings(int index) {
+    return bookings[index];
+  }
+}
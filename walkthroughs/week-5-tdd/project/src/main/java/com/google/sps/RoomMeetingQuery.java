@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds meeting times during the day together with a room to hold them in. The people's busy
+ * times are combined into one {@link MinuteMask} once for the required attendees and once more
+ * with the optional ones, and then each room that fits the group is checked by OR-ing its bookings
+ * into a copy of the mask. Rooms that are too small are never looked at,
+ * and checking a room doesn't depend on how many events anybody has.
+ */
+public final class RoomMeetingQuery {
+
+  /**
+   * A free time and a room that is free for all of it.
+   */
+  public static final class Option {
+    private static final Comparator<Option> ORDER_BY_START = new Comparator<Option>() {
+      @Override
+      public int compare(Option a, Option b) {
+        return TimeRange.ORDER_BY_START.compare(a.when, b.when);
+      }
+    };
+
+    private final TimeRange when;
+    private final Room room;
+
+    private Option(TimeRange when, Room room) {
+      this.when = when;
+      this.room = room;
+    }
+
+    /**
+     * Returns the free time. Any meeting that fits inside it works for the attendees and the room.
+     */
+    public TimeRange getWhen() {
+      return when;
+    }
+
+    /**
+     * Returns the room.
+     */
+    public Room getRoom() {
+      return room;
+    }
+
+    @Override
+    public String toString() {
+      return when + " in " + room;
+    }
+  }
+
+  /**
+   * Returns the free times of the attendees of {@code request} in every room that fits them.
+   * Optional attendees are only taken into account if there is time when everybody, and a room big
+   * enough for everybody, is free, as in {@link FindMeetingQuery}; otherwise the rooms only have to
+   * fit the required attendees. The options are ordered by start, and options with the same start
+   * by the size of the room, smallest first.
+   */
+  public List<Option> query(CalendarView calendar, RoomDirectory rooms, MeetingRequest request) {
+    MinuteMask required = new MinuteMask();
+    addBusyTimes(required, calendar, request.getAttendees());
+    if (request.getOptionalAttendees().isEmpty()) {
+      return options(required, request.getAttendees().size(), rooms, request.getDuration());
+    }
+
+    MinuteMask everyone = required.copy();
+    addBusyTimes(everyone, calendar, request.getOptionalAttendees());
+    List<Option> options = options(everyone,
+        request.getAttendees().size() + request.getOptionalAttendees().size(), rooms,
+        request.getDuration());
+    if (!options.isEmpty() || request.getAttendees().isEmpty()) {
+      return options;
+    }
+    return options(required, request.getAttendees().size(), rooms, request.getDuration());
+  }
+
+  // Returns the times at least duration long when nobody in people is busy, in each room that
+  // holds groupSize people.
+  private static List<Option> options(
+      MinuteMask people, int groupSize, RoomDirectory rooms, long duration) {
+    List<Option> options = new ArrayList<>();
+    if (people.freeRanges(duration).isEmpty()) {
+      return options;
+    }
+    MinuteMask busy = new MinuteMask();
+    for (int i = rooms.firstFitting(groupSize); i < rooms.size(); i++) {
+      busy.copyFrom(people);
+      busy.or(rooms.bookings(i));
+      for (TimeRange free : busy.freeRanges(duration)) {
+        options.add(new Option(free, rooms.room(i)));
+      }
+    }
+    // The sort is stable, and rooms were checked from the smallest up.
+    Collections.sort(options, Option.ORDER_BY_START);
+    return options;
+  }
+
+  private static void addBusyTimes(
+      MinuteMask mask, CalendarView calendar, Collection<String> attendees) {
+    for (String attendee : attendees) {
+      for (TimeRange busy : calendar.getBusyTimes(attendee, TimeRange.WHOLE_DAY)) {
+        mask.add(busy);
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * How a {@link ShardedMeetingQuery} reaches one {@link CalendarShard}, wherever it runs.
+ */
+public interface ShardClient {
+  /**
+   * Returns, for each group of attendees, the merged times inside {@code window} at which any of
+   * them is busy. Every attendee must belong to the shard.
+   */
+  PackedIntervalSet[] busyTimes(List<? extends Collection<String>> groups, TimeRange window)
+      throws IOException;
+
+  /**
+   * Returns a client that calls {@code shard} directly.
+   */
+  static ShardClient local(CalendarShard shard) {
+    return (groups, window) -> {
+      PackedIntervalSet[] busyTimes = new PackedIntervalSet[groups.size()];
+      for (int i = 0; i < busyTimes.length; i++) {
+        busyTimes[i] = shard.busyTimes(groups.get(i), window);
+      }
+      return busyTimes;
+    };
+  }
+
+  /**
+   * Returns a client that writes every request out and reads the answer back in, the way it would
+   * go over a connection to another process, but hands the bytes to {@code shard} in memory.
+   */
+  static ShardClient loopback(CalendarShard shard) {
+    return (groups, window) -> {
+      ByteArrayOutputStream request = new ByteArrayOutputStream();
+      ShardProtocol.writeRequest(new DataOutputStream(request), groups, window);
+
+      ByteArrayOutputStream response = new ByteArrayOutputStream();
+      shard.serve(new DataInputStream(new ByteArrayInputStream(request.toByteArray())),
+          new DataOutputStream(response));
+      return ShardProtocol.readResponse(
+          new DataInputStream(new ByteArrayInputStream(response.toByteArray())));
+    };
+  }
+}
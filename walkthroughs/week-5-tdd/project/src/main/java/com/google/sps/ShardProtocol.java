@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * How busy time requests and their answers are written between a coordinator and a shard. A
+ * request is a window followed by groups of attendees; the answer has one merged set of busy
+ * intervals per group, as start and end pairs.
+ *
+ * <p>Counts read off the wire are checked against the maximums below before anything is sized by
+ * them, and lists only start out as big as {@link #INITIAL_CAPACITY}, so a corrupt or hostile peer
+ * can't make the reader allocate more than it actually sends.
+ */
+final class ShardProtocol {
+  // The most groups in a request or an answer.
+  static final int MAX_GROUPS = 1 << 16;
+
+  // The most attendees in a group.
+  static final int MAX_ATTENDEES = 1 << 16;
+
+  // The most busy intervals in an answer for a group.
+  static final int MAX_INTERVALS = 1 << 20;
+
+  // Lists read off the wire start out no bigger than this, and grow as entries actually arrive.
+  private static final int INITIAL_CAPACITY = 64;
+
+  private ShardProtocol() {}
+
+  /**
+   * A request read off the wire.
+   */
+  static final class Request {
+    final TimeRange window;
+    final List<List<String>> groups;
+
+    private Request(TimeRange window, List<List<String>> groups) {
+      this.window = window;
+      this.groups = groups;
+    }
+  }
+
+  static void writeRequest(DataOutput out, List<? extends Collection<String>> groups,
+      TimeRange window) throws IOException {
+    out.writeInt(window.start());
+    out.writeInt(window.end());
+    out.writeInt(checkCount(groups.size(), MAX_GROUPS));
+    for (Collection<String> group : groups) {
+      out.writeInt(checkCount(group.size(), MAX_ATTENDEES));
+      for (String attendee : group) {
+        out.writeUTF(attendee);
+      }
+    }
+  }
+
+  static Request readRequest(DataInput in) throws IOException {
+    int start = in.readInt();
+    int end = in.readInt();
+    int groupCount = checkCount(in.readInt(), MAX_GROUPS);
+    List<List<String>> groups = new ArrayList<>(Math.min(groupCount, INITIAL_CAPACITY));
+    for (int i = 0; i < groupCount; i++) {
+      int size = checkCount(in.readInt(), MAX_ATTENDEES);
+      List<String> group = new ArrayList<>(Math.min(size, INITIAL_CAPACITY));
+      for (int j = 0; j < size; j++) {
+        group.add(in.readUTF());
+      }
+      groups.add(group);
+    }
+    if (end < start) {
+      throw new IOException("window ends before it starts");
+    }
+    return new Request(TimeRange.fromStartEnd(start, end, false), groups);
+  }
+
+  static void writeResponse(DataOutput out, PackedIntervalSet[] busyTimes) throws IOException {
+    out.writeInt(checkCount(busyTimes.length, MAX_GROUPS));
+    for (PackedIntervalSet set : busyTimes) {
+      out.writeInt(checkCount(set.size(), MAX_INTERVALS));
+      for (int i = 0; i < set.size(); i++) {
+        out.writeInt(set.start(i));
+        out.writeInt(set.end(i));
+      }
+    }
+  }
+
+  static PackedIntervalSet[] readResponse(DataInput in) throws IOException {
+    int groupCount = checkCount(in.readInt(), MAX_GROUPS);
+    List<PackedIntervalSet> busyTimes = new ArrayList<>(Math.min(groupCount, INITIAL_CAPACITY));
+    for (int i = 0; i < groupCount; i++) {
+      int size = checkCount(in.readInt(), MAX_INTERVALS);
+      PackedIntervalSet set = new PackedIntervalSet(Math.min(size, INITIAL_CAPACITY));
+      for (int j = 0; j < size; j++) {
+        set.add(in.readInt(), in.readInt());
+      }
+      busyTimes.add(set);
+    }
+    return busyTimes.toArray(new PackedIntervalSet[0]);
+  }
+
+  private static int checkCount(int count, int max) throws IOException {
+    if (count < 0 || count > max) {
+      throw new IOException("count " + count + " is not between 0 and " + max);
+    }
+    return count;
+  }
+}
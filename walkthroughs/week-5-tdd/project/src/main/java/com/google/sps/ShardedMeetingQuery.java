@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Answers the same requests as {@link FindMeetingQuery} for a calendar split into shards by
+ * {@link CalendarShard#partition}. Each shard is sent only the attendees it holds, all shards are
+ * asked at once, and the merged busy times they send back are combined into the answer.
+ */
+public final class ShardedMeetingQuery {
+  // The two groups of attendees sent to every shard.
+  private static final int REQUIRED = 0;
+  private static final int OPTIONAL = 1;
+
+  private final List<ShardClient> shards;
+  private final Executor executor;
+
+  /**
+   * Creates a query over {@code shards}, in the order {@link CalendarShard#partition} made them.
+   * Shards are asked on {@code executor}.
+   */
+  public ShardedMeetingQuery(List<ShardClient> shards, Executor executor) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("there must be at least one shard");
+    }
+    this.shards = new ArrayList<>(shards);
+    this.executor = executor;
+  }
+
+  /**
+   * Finds the meeting times during the day.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) throws IOException {
+    return query(request, TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Finds the meeting times inside {@code window}.
+   *
+   * @throws IOException if a shard could not be asked.
+   */
+  public Collection<TimeRange> query(MeetingRequest request, TimeRange window)
+      throws IOException {
+    List<List<List<String>>> groupsByShard = new ArrayList<>(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      groupsByShard.add(Arrays.asList(new ArrayList<>(), new ArrayList<>()));
+    }
+    for (String attendee : request.getAttendees()) {
+      groupsByShard.get(CalendarShard.shardOf(attendee, shards.size())).get(REQUIRED).add(attendee);
+    }
+    for (String attendee : request.getOptionalAttendees()) {
+      groupsByShard.get(CalendarShard.shardOf(attendee, shards.size())).get(OPTIONAL).add(attendee);
+    }
+
+    // Scatter: ask every shard that holds somebody in the request.
+    List<CompletableFuture<PackedIntervalSet[]>> answers = new ArrayList<>();
+    for (int i = 0; i < shards.size(); i++) {
+      List<List<String>> groups = groupsByShard.get(i);
+      if (groups.get(REQUIRED).isEmpty() && groups.get(OPTIONAL).isEmpty()) {
+        continue;
+      }
+      ShardClient shard = shards.get(i);
+      answers.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          return shard.busyTimes(groups, window);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor));
+    }
+
+    // Gather: the shards' busy times only need to be put together.
+    PackedIntervalSet required = new PackedIntervalSet();
+    PackedIntervalSet optional = new PackedIntervalSet();
+    for (CompletableFuture<PackedIntervalSet[]> answer : answers) {
+      PackedIntervalSet[] busyTimes = join(answer);
+      if (busyTimes.length != 2) {
+        throw new IOException("expected 2 groups of busy times but got " + busyTimes.length);
+      }
+      required.addAll(busyTimes[REQUIRED]);
+      optional.addAll(busyTimes[OPTIONAL]);
+    }
+    return FindMeetingQuery.query(required, optional, request, window);
+  }
+
+  private static PackedIntervalSet[] join(CompletableFuture<PackedIntervalSet[]> answer)
+      throws IOException {
+    try {
+      return answer.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Scores meeting times by the soft preferences of a request. A score is minus the minutes of
+ * penalty a time gets, so 0 is best:
+ *
+ * <ul>
+ *   <li>every minute of the meeting outside of the preferred hours costs a minute;
+ *   <li>starting right after, or ending right before, someone's event costs
+ *       {@link #BACK_TO_BACK_PENALTY} minutes on each side;
+ *   <li>every minute of free time left before or after the meeting in a gap shorter than
+ *       {@link #USEFUL_FREE_TIME} costs a minute.
+ * </ul>
+ *
+ * <p>Scoring only looks at the bounds of the free slot a meeting is in, so it takes constant time.
+ */
+final class SlotScorer {
+  static final int BACK_TO_BACK_PENALTY = 15;
+  static final int USEFUL_FREE_TIME = 30;
+
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final int duration;
+  private final TimeRange preferredHours;
+  private final boolean avoidBackToBack;
+  private final boolean minimizeFragmentation;
+
+  SlotScorer(MeetingRequest request) {
+    this.duration = (int) request.getDuration();
+    this.preferredHours = request.getPreferredHours();
+    this.avoidBackToBack = request.avoidsBackToBack();
+    this.minimizeFragmentation = request.minimizesFragmentation();
+  }
+
+  /**
+   * Returns the score of a meeting starting at {@code start} inside the free slot from
+   * {@code slotStart} to {@code slotEnd}. {@code afterBusy} and {@code beforeBusy} tell whether
+   * the slot starts where an event ends, and ends where one starts.
+   */
+  int score(int slotStart, int slotEnd, int start, boolean afterBusy, boolean beforeBusy) {
+    int end = start + duration;
+    int penalty = 0;
+    if (preferredHours != null) {
+      penalty += duration - minutesInPreferredHours(start, end);
+    }
+    if (avoidBackToBack) {
+      if (afterBusy && start == slotStart) {
+        penalty += BACK_TO_BACK_PENALTY;
+      }
+      if (beforeBusy && end == slotEnd) {
+        penalty += BACK_TO_BACK_PENALTY;
+      }
+    }
+    if (minimizeFragmentation) {
+      penalty += wasted(start - slotStart) + wasted(slotEnd - end);
+    }
+    return -penalty;
+  }
+
+  // Times may span several days, so the preferred hours of each of them count.
+  private int minutesInPreferredHours(int start, int end) {
+    int inside = 0;
+    for (long day = Math.floorDiv(start, MINUTES_PER_DAY); day * MINUTES_PER_DAY < end; day++) {
+      long from = Math.max(start, day * MINUTES_PER_DAY + preferredHours.start());
+      long to = Math.min(end, day * MINUTES_PER_DAY + preferredHours.end());
+      inside += (int) Math.max(0, to - from);
+    }
+    return inside;
+  }
+
+  private static int wasted(int freeTime) {
+    return freeTime < USEFUL_FREE_TIME ? freeTime : 0;
+  }
+}
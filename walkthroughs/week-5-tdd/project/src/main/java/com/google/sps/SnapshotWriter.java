@@ -0,0 +1,270 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes events to a binary snapshot file that {@link MappedCalendar} can query without parsing
+ * it. All the integers in the header and the tables are big-endian; the rest are varints, with
+ * signed values zigzag-encoded. A file is laid out as:
+ *
+ * <pre>
+ *   header     magic, version, string count, event count, and the offsets of the string bytes,
+ *              the events and the postings (7 ints)
+ *   strings    string count + 1 offsets into the string bytes (ints)
+ *   postings   string count + 1 offsets into the postings (ints)
+ *   string     every title and attendee once, as UTF-8, in byte order, so that a name can be
+ *   bytes      found by binary search
+ *   events     for each event by start: start minus the start before it, duration, title id,
+ *              attendee count, and each attendee id minus the one before it
+ *   postings   for each string id: how many events the attendee has, a skip entry for every
+ *              {@link #SKIP_INTERVAL} of them after the first, then start minus the start before it
+ *              and duration for each of them by start. A skip entry is three ints: the start of
+ *              the event before the ones it skips to, the latest end of all the events before
+ *              them, and where they start, counted from the first start
+ * </pre>
+ *
+ * Files must stay under 2GB.
+ */
+public final class SnapshotWriter {
+  static final int MAGIC = 0x43414C53; // "CALS"
+  static final int VERSION = 2;
+  static final int HEADER_INTS = 7;
+
+  // How many postings a skip entry skips over, and how big one is.
+  static final int SKIP_INTERVAL = 64;
+  static final int SKIP_ENTRY_BYTES = 3 * 4;
+
+  private static final Comparator<Event> ORDER_BY_START = new Comparator<Event>() {
+    @Override
+    public int compare(Event a, Event b) {
+      return TimeRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen());
+    }
+  };
+
+  private SnapshotWriter() {}
+
+  /**
+   * Writes {@code events} to {@code file}, replacing it if it exists.
+   */
+  public static void write(Collection<Event> events, Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      write(events, out);
+    }
+  }
+
+  /**
+   * Writes {@code events} to {@code out}.
+   */
+  public static void write(Collection<Event> events, OutputStream out) throws IOException {
+    List<Event> sorted = new ArrayList<>(events);
+    Collections.sort(sorted, ORDER_BY_START);
+
+    // Every title and attendee gets an id in the byte order of its UTF-8 form.
+    Map<String, byte[]> utf8 = new HashMap<>();
+    for (Event event : sorted) {
+      utf8.computeIfAbsent(event.getTitle(), SnapshotWriter::toUtf8);
+      for (String attendee : event.getAttendees()) {
+        utf8.computeIfAbsent(attendee, SnapshotWriter::toUtf8);
+      }
+    }
+    TreeMap<byte[], String> byBytes = new TreeMap<>(SnapshotWriter::compareUnsigned);
+    for (Map.Entry<String, byte[]> entry : utf8.entrySet()) {
+      byBytes.put(entry.getValue(), entry.getKey());
+    }
+    Map<String, Integer> ids = new HashMap<>();
+    ByteSink stringBytes = new ByteSink();
+    int[] stringOffsets = new int[byBytes.size() + 1];
+    for (Map.Entry<byte[], String> entry : byBytes.entrySet()) {
+      int id = ids.size();
+      ids.put(entry.getValue(), id);
+      stringOffsets[id] = stringBytes.size();
+      stringBytes.write(entry.getKey());
+    }
+    stringOffsets[ids.size()] = stringBytes.size();
+
+    // The events, and the events of each attendee, both by start.
+    List<List<TimeRange>> busyTimes = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      busyTimes.add(new ArrayList<>());
+    }
+    ByteSink eventBytes = new ByteSink();
+    int previousStart = 0;
+    for (Event event : sorted) {
+      TimeRange when = event.getWhen();
+      eventBytes.writeSignedVarint(when.start() - previousStart);
+      eventBytes.writeVarint(when.duration());
+      eventBytes.writeVarint(ids.get(event.getTitle()));
+      previousStart = when.start();
+
+      int[] attendees = new int[event.getAttendees().size()];
+      int i = 0;
+      for (String attendee : event.getAttendees()) {
+        attendees[i++] = ids.get(attendee);
+        busyTimes.get(attendees[i - 1]).add(when);
+      }
+      Arrays.sort(attendees);
+      eventBytes.writeVarint(attendees.length);
+      int previousId = 0;
+      for (int id : attendees) {
+        eventBytes.writeVarint(id - previousId);
+        previousId = id;
+      }
+    }
+
+    ByteSink postingBytes = new ByteSink();
+    ByteSink deltas = new ByteSink();
+    int[] postingOffsets = new int[ids.size() + 1];
+    for (int id = 0; id < ids.size(); id++) {
+      postingOffsets[id] = postingBytes.size();
+      List<TimeRange> attendeeTimes = busyTimes.get(id);
+      postingBytes.writeVarint(attendeeTimes.size());
+      deltas.clear();
+      int previous = 0;
+      int latestEnd = Integer.MIN_VALUE;
+      for (int i = 0; i < attendeeTimes.size(); i++) {
+        if (i > 0 && i % SKIP_INTERVAL == 0) {
+          postingBytes.writeInt(previous);
+          postingBytes.writeInt(latestEnd);
+          postingBytes.writeInt(deltas.size());
+        }
+        TimeRange when = attendeeTimes.get(i);
+        deltas.writeSignedVarint(when.start() - previous);
+        deltas.writeVarint(when.duration());
+        previous = when.start();
+        latestEnd = Math.max(latestEnd, when.end());
+      }
+      postingBytes.write(deltas);
+    }
+    postingOffsets[ids.size()] = postingBytes.size();
+
+    long tables = 4L * (HEADER_INTS + stringOffsets.length + postingOffsets.length);
+    long stringsStart = tables;
+    long eventsStart = stringsStart + stringBytes.size();
+    long postingsStart = eventsStart + eventBytes.size();
+    if (postingsStart + postingBytes.size() > Integer.MAX_VALUE) {
+      throw new IOException("snapshot would be larger than 2GB");
+    }
+
+    ByteSink header = new ByteSink();
+    header.writeInt(MAGIC);
+    header.writeInt(VERSION);
+    header.writeInt(ids.size());
+    header.writeInt(sorted.size());
+    header.writeInt((int) stringsStart);
+    header.writeInt((int) eventsStart);
+    header.writeInt((int) postingsStart);
+    for (int offset : stringOffsets) {
+      header.writeInt(offset);
+    }
+    for (int offset : postingOffsets) {
+      header.writeInt(offset);
+    }
+
+    header.writeTo(out);
+    stringBytes.writeTo(out);
+    eventBytes.writeTo(out);
+    postingBytes.writeTo(out);
+  }
+
+  private static byte[] toUtf8(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  // Compares byte arrays as unsigned bytes, the way MappedCalendar searches the string table.
+  static int compareUnsigned(byte[] a, byte[] b) {
+    int length = Math.min(a.length, b.length);
+    for (int i = 0; i < length; i++) {
+      int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return a.length - b.length;
+  }
+
+  /**
+   * A growable byte array with the encodings of the format.
+   */
+  private static final class ByteSink {
+    private byte[] bytes = new byte[256];
+    private int size;
+
+    int size() {
+      return size;
+    }
+
+    void write(byte[] data) {
+      ensureCapacity(data.length);
+      System.arraycopy(data, 0, bytes, size, data.length);
+      size += data.length;
+    }
+
+    void write(ByteSink other) {
+      ensureCapacity(other.size);
+      System.arraycopy(other.bytes, 0, bytes, size, other.size);
+      size += other.size;
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    void writeInt(int value) {
+      ensureCapacity(4);
+      bytes[size++] = (byte) (value >>> 24);
+      bytes[size++] = (byte) (value >>> 16);
+      bytes[size++] = (byte) (value >>> 8);
+      bytes[size++] = (byte) value;
+    }
+
+    void writeVarint(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7F) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    void writeSignedVarint(int value) {
+      writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+      out.write(bytes, 0, size);
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+      }
+    }
+  }
+}
@@ -0,0 +1,181 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts, for every minute a meeting could start at, how many people could not attend it.
+ *
+ * <p>A person with a busy time [a, b) can't make any meeting starting in (a - duration, b), so each
+ * busy time is turned into the range of start times it rules out. Those ranges are merged per
+ * person, so nobody is counted twice, and a single sweep over their sorted ends finds the count
+ * for every start time in O(n log n).
+ */
+final class StartTimeSweep {
+  private final int firstStart;
+  private final int lastStart;
+  private final int length;
+
+  // Each boundary is a start time in the high 32 bits and a change in the count in the low 32 bits,
+  // so sorting the longs sorts the boundaries by start time.
+  private long[] boundaries = new long[16];
+  private int size;
+  private boolean sorted = true;
+
+  /**
+   * Creates a sweep over meetings of {@code duration} minutes that fit inside {@code window}.
+   */
+  StartTimeSweep(TimeRange window, long duration) {
+    // A meeting without a duration still needs the minute it starts in to be free.
+    this.length = (int) Math.max(1, Math.min(duration, Integer.MAX_VALUE));
+    this.firstStart = window.start();
+    this.lastStart = window.end() - length;
+  }
+
+  /**
+   * Adds a person whose absence counts {@code weight} times. Their busy times must be ordered by
+   * start.
+   */
+  void addAttendee(Iterable<TimeRange> busyTimes, int weight) {
+    int blockedFrom = 0;
+    int blockedTo = 0;
+    boolean blocked = false;
+    for (TimeRange busy : busyTimes) {
+      // An event without a duration doesn't keep anybody busy.
+      if (busy.duration() <= 0) {
+        continue;
+      }
+      int from = Math.max(busy.start() - length + 1, firstStart);
+      int to = Math.min(busy.end(), lastStart + 1);
+      if (from >= to) {
+        continue;
+      }
+      if (blocked && from <= blockedTo) {
+        blockedTo = Math.max(blockedTo, to);
+        continue;
+      }
+      if (blocked) {
+        addBoundaries(blockedFrom, blockedTo, weight);
+      }
+      blockedFrom = from;
+      blockedTo = to;
+      blocked = true;
+    }
+    if (blocked) {
+      addBoundaries(blockedFrom, blockedTo, weight);
+    }
+  }
+
+  /**
+   * Returns the smallest number of people who can't make it, over all start times. Returns
+   * {@code Integer.MAX_VALUE} if the meeting doesn't fit in the window at all.
+   */
+  int minUnavailable() {
+    if (lastStart < firstStart) {
+      return Integer.MAX_VALUE;
+    }
+
+    sort();
+    int min = Integer.MAX_VALUE;
+    int count = 0;
+    int previous = firstStart;
+    for (int i = 0; i < size; i++) {
+      int position = position(boundaries[i]);
+      if (position > previous) {
+        min = Math.min(min, count);
+        previous = position;
+      }
+      count += delta(boundaries[i]);
+    }
+    if (lastStart + 1 > previous) {
+      min = Math.min(min, count);
+    }
+    return min;
+  }
+
+  /**
+   * Returns the meeting times for which at most {@code maxUnavailable} people can't make it, as
+   * maximal ranges in ascending order. Every meeting that fits inside a returned range starts at a
+   * time with at most that many people missing.
+   */
+  List<TimeRange> slots(int maxUnavailable) {
+    List<TimeRange> slots = new ArrayList<>();
+    if (lastStart < firstStart) {
+      return slots;
+    }
+
+    sort();
+    int count = 0;
+    int previous = firstStart;
+    int runStart = -1;
+    boolean inRun = false;
+    for (int i = 0; i <= size; i++) {
+      int position = i < size ? position(boundaries[i]) : lastStart + 1;
+      if (position > previous) {
+        if (count <= maxUnavailable && !inRun) {
+          runStart = previous;
+          inRun = true;
+        } else if (count > maxUnavailable && inRun) {
+          slots.add(toMeetingTimes(runStart, previous));
+          inRun = false;
+        }
+        previous = position;
+      }
+      if (i < size) {
+        count += delta(boundaries[i]);
+      }
+    }
+    if (inRun) {
+      slots.add(toMeetingTimes(runStart, lastStart + 1));
+    }
+    return slots;
+  }
+
+  // Converts the start times [from, to) into the span of time the meetings starting then cover.
+  private TimeRange toMeetingTimes(int from, int to) {
+    return TimeRange.fromStartEnd(from, to - 1 + length, false);
+  }
+
+  private void addBoundaries(int from, int to, int weight) {
+    if (size + 2 > boundaries.length) {
+      boundaries = Arrays.copyOf(boundaries, boundaries.length * 2);
+    }
+    boundaries[size++] = boundary(from, weight);
+    boundaries[size++] = boundary(to, -weight);
+    sorted = false;
+  }
+
+  private void sort() {
+    if (!sorted) {
+      Arrays.sort(boundaries, 0, size);
+      sorted = true;
+    }
+  }
+
+  private static long boundary(int position, int delta) {
+    return ((long) position << 32) | (delta & 0xFFFFFFFFL);
+  }
+
+  private static int position(long boundary) {
+    return (int) (boundary >> 32);
+  }
+
+  private static int delta(long boundary) {
+    return (int) boundary;
+  }
+}
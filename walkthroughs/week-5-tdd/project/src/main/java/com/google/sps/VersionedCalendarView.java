@@ -0,0 +1,32 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A calendar that can tell when it, and each person in it, last changed, so that answers computed
+ * from it can tell whether they are stale.
+ */
+public interface VersionedCalendarView extends CalendarView {
+  /**
+   * Returns the version of the calendar. It goes up every time the calendar changes.
+   */
+  long getVersion();
+
+  /**
+   * Returns the version in which the events of {@code attendee} last changed, or 0 if they never
+   * did.
+   */
+  long getVersion(String attendee);
+}
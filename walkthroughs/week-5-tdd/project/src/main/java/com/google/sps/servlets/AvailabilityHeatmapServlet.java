@@ -0,0 +1,88 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.sps.AvailabilityHeatmap;
+import com.google.sps.CalendarRepository;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Tells how many people of a group are free during each part of the day. Takes a JSON object with
+ * the {@code attendees} and the {@code bucket_minutes} to group the day by, which defaults to one
+ * minute.
+ */
+@WebServlet("/availability-heatmap")
+public class AvailabilityHeatmapServlet extends HttpServlet {
+  private final Gson gson = new Gson();
+  private final AvailabilityHeatmap heatmap = new AvailabilityHeatmap();
+  private CalendarRepository repository;
+
+  @Override
+  public void init() {
+    repository = CalendarRepositoryListener.getRepository(getServletContext());
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    HeatmapRequest heatmapRequest = gson.fromJson(request.getReader(), HeatmapRequest.class);
+    if (heatmapRequest == null) {
+      heatmapRequest = new HeatmapRequest();
+    }
+    Collection<String> attendees = heatmapRequest.attendees == null
+        ? Collections.<String>emptySet() : new HashSet<>(heatmapRequest.attendees);
+    int bucketMinutes = heatmapRequest.bucket_minutes == 0 ? 1 : heatmapRequest.bucket_minutes;
+    if (bucketMinutes < 0 || bucketMinutes > TimeRange.WHOLE_DAY.duration()) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "bucket_minutes must be between 1 and " + TimeRange.WHOLE_DAY.duration());
+      return;
+    }
+
+    HeatmapResponse heatmapResponse = new HeatmapResponse();
+    heatmapResponse.bucket_minutes = bucketMinutes;
+    heatmapResponse.attendees = attendees.size();
+    heatmapResponse.free = heatmap.query(repository.getSnapshot(), attendees, bucketMinutes);
+
+    response.setContentType("application/json");
+    response.getWriter().println(gson.toJson(heatmapResponse));
+  }
+
+  /**
+   * The JSON the page sends.
+   */
+  private static final class HeatmapRequest {
+    private List<String> attendees = new ArrayList<>();
+    private int bucket_minutes;
+  }
+
+  /**
+   * The JSON sent back. {@code free[i]} is how many attendees are free for the whole of bucket i.
+   */
+  private static final class HeatmapResponse {
+    private int bucket_minutes;
+    private int attendees;
+    private int[] free;
+  }
+}
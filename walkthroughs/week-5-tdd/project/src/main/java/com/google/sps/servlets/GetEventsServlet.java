@@ -14,7 +14,7 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.CalendarRepository;
 import com.google.gson.Gson;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
@@ -24,10 +24,17 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private CalendarRepository repository;
+
+  @Override
+  public void init() {
+    repository = CalendarRepositoryListener.getRepository(getServletContext());
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    String jsonResponse = gson.toJson(repository.getSnapshot().getEvents());
 
     // Send the JSON back as the response
     response.setContentType("application/json");
@@ -0,0 +1,143 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.DeadlineMeetingQuery;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.GroupViews;
+import com.google.sps.MeetingQueryCache;
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryMetrics;
+import com.google.sps.QuorumMeetingQuery;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+
+/**
+ * Picks how to answer a meeting request, so that every servlet that takes meeting requests gives
+ * the same answer to the same request. Requests with a {@code time_budget_millis} get a
+ * {@link DeadlineMeetingQuery.Result}, requests with a {@code min_attendance} are answered by a
+ * {@link QuorumMeetingQuery}, and every other request goes through the cache. Budgeted requests
+ * use the cache too: a known answer is returned as complete, and complete answers are kept. A
+ * request can't have both a budget and a minimum attendance. Thread-safe.
+ *
+ * <p>The app has one handler, created by {@link MeetingRequestHandlerListener}, so that every
+ * servlet shares its cache and group views.
+ */
+final class MeetingRequestHandler {
+  // How requests were answered, for the histograms of QueryMetrics.
+  static final String CACHE_HIT = "cache_hit";
+  static final String CACHE_MISS = "cache_miss";
+  static final String QUORUM = "quorum";
+  static final String BUDGETED = "budgeted";
+  static final String EXPLAIN = "explain";
+
+  private final GroupViews groupViews;
+  private final FindMeetingQuery findMeetingQuery;
+  private final MeetingQueryCache cache;
+  private final QueryMetrics metrics;
+  private final QuorumMeetingQuery quorumMeetingQuery = new QuorumMeetingQuery();
+  private final DeadlineMeetingQuery deadlineMeetingQuery = new DeadlineMeetingQuery();
+
+  /**
+   * Creates a handler that remembers up to {@code cacheSize} answers, reads hot groups from
+   * {@code groupViews} and records into {@code metrics}.
+   */
+  MeetingRequestHandler(GroupViews groupViews, int cacheSize, QueryMetrics metrics) {
+    this.groupViews = groupViews;
+    this.findMeetingQuery = new FindMeetingQuery(groupViews, metrics);
+    this.cache = new MeetingQueryCache(cacheSize, findMeetingQuery);
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the cache that requests without a minimum attendance are answered from.
+   */
+  MeetingQueryCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Returns the views of the free time of hot groups.
+   */
+  GroupViews getGroupViews() {
+    return groupViews;
+  }
+
+  /**
+   * Returns the query that fills the cache.
+   */
+  FindMeetingQuery getFindMeetingQuery() {
+    return findMeetingQuery;
+  }
+
+  /**
+   * Returns why {@code request} can't be answered, or null if it can. Requests read from JSON may
+   * be null or hold values out of range.
+   */
+  static String problemWith(MeetingRequest request) {
+    if (request == null) {
+      return "Missing meeting request";
+    }
+    try {
+      request.validate();
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    }
+    if (request.getTimeBudgetMillis() > 0 && request.getMinAttendance() > 0) {
+      // Quorum queries read every attendee, so they have no way of stopping early.
+      return "time_budget_millis cannot be combined with min_attendance";
+    }
+    return null;
+  }
+
+  /**
+   * Answers a valid request from {@code snapshot}, with its time budget counted from
+   * {@code arrivalNanos}. Returns the meeting times, or a {@link DeadlineMeetingQuery.Result} for
+   * requests with a time budget. The time from arrival to answer, queueing included, is recorded
+   * under the route that answered it.
+   */
+  Object answer(CalendarSnapshot snapshot, MeetingRequest request, long arrivalNanos) {
+    // Requests with a time budget get whatever could be found in time, and are told what's left.
+    // An answer that is already known is complete for free, and a complete one is worth keeping.
+    if (request.getTimeBudgetMillis() > 0) {
+      Collection<TimeRange> known = cache.getIfPresent(snapshot, request);
+      if (known != null) {
+        return answered(CACHE_HIT, arrivalNanos, DeadlineMeetingQuery.Result.complete(known));
+      }
+      DeadlineMeetingQuery.Result result = deadlineMeetingQuery.query(snapshot, request,
+          TimeRange.WHOLE_DAY, DeadlineMeetingQuery.deadlineFor(request, arrivalNanos));
+      if (result.isComplete()) {
+        cache.put(snapshot, request, result.getSlots());
+      }
+      return answered(BUDGETED, arrivalNanos, result);
+    }
+
+    // Requests that only need some of the attendees are rare enough to always be computed.
+    if (request.getMinAttendance() > 0) {
+      return answered(QUORUM, arrivalNanos, quorumMeetingQuery.query(snapshot, request));
+    }
+
+    // Reuse the meeting times if the same request was seen before.
+    MeetingQueryCache.Answer answer = cache.answer(snapshot, request);
+    return answered(answer.isHit() ? CACHE_HIT : CACHE_MISS, arrivalNanos, answer.getTimes());
+  }
+
+  // Records how long the request took to answer by the given route, and returns the answer.
+  private Object answered(String route, long arrivalNanos, Object answer) {
+    metrics.recordRequest(route, System.nanoTime() - arrivalNanos);
+    return answer;
+  }
+}
@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.GroupViews;
+import com.google.sps.QueryMetrics;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Creates the {@link MeetingRequestHandler} that every servlet taking meeting requests shares when
+ * the app starts, so that they all answer from one cache. Groups of attendees asked about
+ * {@code hot-group-threshold} times get a view of their free time, up to {@code max-group-views}
+ * views taking about {@code max-group-view-bytes}; these context parameters are optional.
+ */
+@WebListener
+public class MeetingRequestHandlerListener implements ServletContextListener {
+  private static final String ATTRIBUTE = MeetingRequestHandler.class.getName();
+
+  // How many answers to remember. The UI polls the same few requests over and over.
+  private static final int CACHE_SIZE = 1000;
+
+  private static final int DEFAULT_HOT_GROUP_THRESHOLD = 3;
+  private static final int DEFAULT_MAX_GROUP_VIEWS = 500;
+  private static final long DEFAULT_MAX_GROUP_VIEW_BYTES = 16 << 20;
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    ServletContext context = event.getServletContext();
+    GroupViews groupViews = new GroupViews(
+        (int) parameter(context, "hot-group-threshold", DEFAULT_HOT_GROUP_THRESHOLD),
+        (int) parameter(context, "max-group-views", DEFAULT_MAX_GROUP_VIEWS),
+        parameter(context, "max-group-view-bytes", DEFAULT_MAX_GROUP_VIEW_BYTES));
+    context.setAttribute(
+        ATTRIBUTE, new MeetingRequestHandler(groupViews, CACHE_SIZE, QueryMetrics.global()));
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    event.getServletContext().removeAttribute(ATTRIBUTE);
+  }
+
+  /**
+   * Returns the meeting request handler of the app.
+   */
+  static MeetingRequestHandler getHandler(ServletContext context) {
+    return (MeetingRequestHandler) context.getAttribute(ATTRIBUTE);
+  }
+
+  private static long parameter(ServletContext context, String name, long defaultValue) {
+    String value = context.getInitParameter(name);
+    return value == null ? defaultValue : Long.parseLong(value);
+  }
+}
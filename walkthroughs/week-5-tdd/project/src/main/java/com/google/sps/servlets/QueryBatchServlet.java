@@ -0,0 +1,106 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.CalendarRepository;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.MeetingRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a JSON array of meeting requests in one round trip. The requests are evaluated in
+ * parallel against the same snapshot of the calendar, and the answers are written out in request
+ * order as soon as each one is ready. Each request is answered the way {@link QueryServlet} would
+ * answer it on its own, from the same {@link MeetingRequestHandler}, so requests with a time budget
+ * get an object rather than a list, and batches share the cache of {@code /query}. If any request
+ * is missing or invalid, the whole batch is answered with 400 Bad Request before any of them are
+ * run. A request that fails once the answers have started going out gets
+ * {@code {"error": ...}} in its place, since the response can no longer change its status.
+ */
+@WebServlet("/query-batch")
+public class QueryBatchServlet extends HttpServlet {
+  private final Gson gson = new Gson();
+  private MeetingRequestHandler handler;
+  private CalendarRepository repository;
+  private ForkJoinPool pool;
+
+  @Override
+  public void init() {
+    repository = CalendarRepositoryListener.getRepository(getServletContext());
+    handler = MeetingRequestHandlerListener.getHandler(getServletContext());
+    pool = new ForkJoinPool();
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    long arrivalNanos = System.nanoTime();
+
+    // Convert the JSON to the list of meeting requests.
+    MeetingRequest[] meetingRequests = gson.fromJson(request.getReader(), MeetingRequest[].class);
+    if (meetingRequests == null) {
+      meetingRequests = new MeetingRequest[0];
+    }
+    for (int i = 0; i < meetingRequests.length; i++) {
+      String problem = MeetingRequestHandler.problemWith(meetingRequests[i]);
+      if (problem != null) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Request " + i + ": " + problem);
+        return;
+      }
+    }
+
+    // Start finding the possible meeting times for every request at once.
+    CalendarSnapshot snapshot = repository.getSnapshot();
+    List<CompletableFuture<Object>> answers = new ArrayList<>();
+    for (MeetingRequest meetingRequest : meetingRequests) {
+      answers.add(CompletableFuture.supplyAsync(
+          () -> handler.answer(snapshot, meetingRequest, arrivalNanos), pool));
+    }
+
+    // Send back an array with one answer per request, flushing each one as it completes.
+    response.setContentType("application/json");
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    writer.beginArray();
+    for (CompletableFuture<Object> answer : answers) {
+      Object json;
+      try {
+        json = answer.join();
+      } catch (CompletionException e) {
+        log("Could not answer meeting request", e.getCause());
+        json = Collections.singletonMap("error", "Could not answer meeting request");
+      }
+      gson.toJson(json, json.getClass(), writer);
+      writer.flush();
+    }
+    writer.endArray();
+    writer.flush();
+  }
+}
@@ -14,38 +14,248 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.CalendarRepository;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.DeadlineMeetingQuery;
 import com.google.sps.FindMeetingQuery;
+import com.google.sps.GroupViews;
+import com.google.sps.MeetingQueryCache;
 import com.google.sps.MeetingRequest;
-import com.google.sps.TimeRange;
+import com.google.sps.QueryExecutor;
+import com.google.sps.QueryMetrics;
+import com.google.sps.QueryStats;
 import com.google.gson.Gson;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.annotation.WebInitParam;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+/**
+ * Finds the meeting times for a JSON meeting request. Requests are answered asynchronously on a
+ * {@link QueryExecutor}, so the container thread is given back as soon as a request has been read.
+ * The {@code max-concurrent-queries} and {@code max-queued-queries} init parameters bound the
+ * executor; requests that don't fit in its queue are answered with 503 Service Unavailable, as
+ * are requests that aren't answered within {@code query-timeout-millis}. A request that times out
+ * while queued is skipped when its turn comes; one that times out while running still runs, but
+ * its answer is thrown away. Requests are answered by the {@link MeetingRequestHandler} of the
+ * app, so {@code /query} and {@link QueryBatchServlet} share one cache and one set of group views.
+ *
+ * <p>Java 8 has no virtual threads, so every running query holds one of the executor's platform
+ * threads, even while it waits on storage. The container no longer limits how many queries are
+ * in flight, but {@code max-concurrent-queries} does. Its default of 256 is for queries that
+ * mostly wait; it costs a thread stack per running query, and queries that are bound by the CPU
+ * gain nothing from more threads than cores.
+ *
+ * <p>Requests with a {@code time_budget_millis} are answered with an object instead of a list:
+ * the {@code slots} found in time, whether the answer is {@code complete}, and the
+ * {@code unchecked_attendees}. The budget counts from when the request came in, and may be
+ * overrun by as long as {@link DeadlineMeetingQuery} takes between two checks of the clock.
+ * Requests that have both a budget and a {@code min_attendance} are answered with 400 Bad Request.
+ *
+ * <p>With {@code ?explain=true}, the answer is computed again instead of read from the cache, and
+ * is sent as the {@code slots} together with an {@code explain} breakdown of where the query spent
+ * its time. Requests with a {@code min_attendance} or a {@code time_budget_millis} can't be
+ * explained, and asking to is answered with 400 Bad Request. Every request adds how long it took,
+ * by the route that answered it, to the histograms served by {@link QueryStatsServlet}; the
+ * per-phase histograms there only cover the queries that {@link FindMeetingQuery} actually ran,
+ * which are the cache misses and the explained requests.
+ */
+@WebServlet(urlPatterns = "/query", asyncSupported = true, initParams = {
+    @WebInitParam(name = "max-concurrent-queries", value = "256"),
+    @WebInitParam(name = "max-queued-queries", value = "1000"),
+    @WebInitParam(name = "query-timeout-millis", value = "30000")})
 public class QueryServlet extends HttpServlet {
+  private final Gson gson = new Gson();
+  private MeetingRequestHandler handler;
+  private CalendarRepository repository;
+  private QueryExecutor executor;
+  private long timeoutMillis;
+
+  @Override
+  public void init() {
+    repository = CalendarRepositoryListener.getRepository(getServletContext());
+    executor = new QueryExecutor(Integer.parseInt(getInitParameter("max-concurrent-queries")),
+        Integer.parseInt(getInitParameter("max-queued-queries")));
+    timeoutMillis = Long.parseLong(getInitParameter("query-timeout-millis"));
+    handler = MeetingRequestHandlerListener.getHandler(getServletContext());
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
+  /**
+   * Responds with how well the cache, the group views and the executor are doing, to help pick
+   * their sizes.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    MeetingQueryCache cache = handler.getCache();
+    GroupViews groupViews = handler.getGroupViews();
+    Map<String, Long> stats = new LinkedHashMap<>();
+    stats.put("hits", cache.getHits());
+    stats.put("misses", cache.getMisses());
+    stats.put("size", (long) cache.size());
+    stats.put("group_views", (long) groupViews.size());
+    stats.put("group_view_bytes", groupViews.getBytes());
+    stats.put("group_view_hits", groupViews.getHits());
+    stats.put("group_view_rebuilds", groupViews.getRebuilds());
+    stats.put("running", (long) executor.getRunning());
+    stats.put("queued", (long) executor.getQueued());
+    stats.put("max_queued", (long) executor.getMaxQueued());
+    stats.put("completed", executor.getCompleted());
+    stats.put("rejected", executor.getRejected());
+    stats.put("expired", executor.getExpired());
+
+    response.setContentType("application/json");
+    response.getWriter().println(gson.toJson(stats));
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    long arrivalNanos = System.nanoTime();
 
-    // Convert the JSON to an instance of MeetingRequest.
+    // The request is read before going async, so that nothing touches it once it may time out.
     MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    String problem = MeetingRequestHandler.problemWith(meetingRequest);
+    if (problem != null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, problem);
+      return;
+    }
+    boolean explain = "true".equals(request.getParameter("explain"));
+    if (explain && (meetingRequest.getMinAttendance() > 0
+        || meetingRequest.getTimeBudgetMillis() > 0)) {
+      // Only FindMeetingQuery keeps the stats that the breakdown is made of.
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "explain cannot be combined with min_attendance or time_budget_millis");
+      return;
+    }
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    AsyncContext async = request.startAsync();
+    async.setTimeout(timeoutMillis);
+    PendingAnswer pending =
+        new PendingAnswer(async, () -> answer(meetingRequest, explain, arrivalNanos));
+    async.addListener(pending);
+    try {
+      executor.execute(pending, arrivalNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    } catch (RejectedExecutionException e) {
+      pending.fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many queries");
+    }
+  }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+  // Finds the meeting times and returns them as JSON. Runs on the executor.
+  private String answer(MeetingRequest meetingRequest, boolean explain, long arrivalNanos) {
+    CalendarSnapshot snapshot = repository.getSnapshot();
+    if (explain) {
+      Map<String, Object> explained = new LinkedHashMap<>();
+      explained.put("slots", handler.getFindMeetingQuery().query(snapshot, meetingRequest));
+      QueryStats stats = new QueryStats();
+      stats.copyFrom(FindMeetingQuery.lastQueryStats());
+      explained.put("explain", stats);
+      QueryMetrics.global().recordRequest(
+          MeetingRequestHandler.EXPLAIN, System.nanoTime() - arrivalNanos);
+      return gson.toJson(explained);
+    }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    // Find the possible meeting times in the latest snapshot of the calendar, and convert them to
+    // JSON.
+    return gson.toJson(handler.answer(snapshot, meetingRequest, arrivalNanos));
+  }
+
+  /**
+   * A request waiting for its answer. Whichever comes first, the answer or the timeout, writes
+   * the response and completes the request; the other one does nothing. A request that times out
+   * while queued is skipped when its turn comes.
+   */
+  private final class PendingAnswer implements Runnable, AsyncListener {
+    private final AsyncContext async;
+    private final Supplier<String> answer;
+    private boolean responded;
+
+    PendingAnswer(AsyncContext async, Supplier<String> answer) {
+      this.async = async;
+      this.answer = answer;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (responded) {
+          return;
+        }
+      }
+      String json;
+      try {
+        json = answer.get();
+      } catch (RuntimeException e) {
+        log("Could not answer meeting request", e);
+        fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Could not answer meeting request");
+        return;
+      }
+      respond(json);
+    }
+
+    // Writes the answer, unless the request timed out first.
+    synchronized void respond(String json) {
+      if (responded) {
+        return;
+      }
+      responded = true;
+      HttpServletResponse response = (HttpServletResponse) async.getResponse();
+      try {
+        response.setContentType("application/json");
+        response.getWriter().println(json);
+      } catch (IOException e) {
+        log("Could not send meeting times", e);
+      } finally {
+        async.complete();
+      }
+    }
+
+    // Sends an error, unless the request was already answered.
+    synchronized void fail(int status, String message) {
+      if (responded) {
+        return;
+      }
+      responded = true;
+      HttpServletResponse response = (HttpServletResponse) async.getResponse();
+      try {
+        if (!response.isCommitted()) {
+          response.sendError(status, message);
+        }
+      } catch (IOException e) {
+        log("Could not send error " + status, e);
+      } finally {
+        async.complete();
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Query timed out");
+    }
+
+    @Override
+    public synchronized void onError(AsyncEvent event) {
+      // The client went away; the container finishes the request.
+      responded = true;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {}
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
   }
 }
@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.sps.LogHistogram;
+import com.google.sps.QueryMetrics;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Responds with the histograms of the meeting requests that {@link QueryServlet} and
+ * {@link QueryBatchServlet} answered. {@code requests} has how long requests took from arrival to
+ * answer, by the route that answered them: {@code cache_hit}, {@code cache_miss}, {@code quorum},
+ * {@code budgeted} or {@code explain}. {@code queries} breaks down only the queries that
+ * {@link com.google.sps.FindMeetingQuery} ran, which are the cache misses and the explained
+ * requests; cache hits, quorum and budgeted requests never reach it. For each histogram it sends
+ * the {@code count}, the {@code p50}, {@code p90} and {@code p99} bucket bounds, and the
+ * {@code buckets}, where bucket i counts the values from 2^(i-1) up to 2^i - 1.
+ */
+@WebServlet("/query-stats")
+public class QueryStatsServlet extends HttpServlet {
+  private final Gson gson = new Gson();
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("requests", summarize(QueryMetrics.global().getRequestHistograms()));
+    stats.put("queries", summarize(QueryMetrics.global().getHistograms()));
+
+    response.setContentType("application/json");
+    response.getWriter().println(gson.toJson(stats));
+  }
+
+  private static Map<String, Object> summarize(Map<String, LogHistogram> histograms) {
+    Map<String, Object> summaries = new LinkedHashMap<>();
+    for (Map.Entry<String, LogHistogram> entry : histograms.entrySet()) {
+      LogHistogram histogram = entry.getValue();
+      long[] buckets = histogram.getCounts();
+      long count = 0;
+      for (long bucket : buckets) {
+        count += bucket;
+      }
+
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("count", count);
+      summary.put("p50", histogram.getQuantile(0.5));
+      summary.put("p90", histogram.getQuantile(0.9));
+      summary.put("p99", histogram.getQuantile(0.99));
+      summary.put("buckets", buckets);
+      summaries.put(entry.getKey(), summary);
+    }
+    return summaries;
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.sps.CalendarRepository;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.MeetingSuggestion;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Ranks the meeting times of the day by the soft preferences of a request. Takes the same JSON as
+ * {@link QueryServlet}, and sends back the best {@code suggestions} times, or
+ * {@value #DEFAULT_SUGGESTIONS} if the request doesn't say, each with its score. Requests with a
+ * {@code limit}, a {@code min_attendance} or a {@code time_budget_millis} are answered with 400
+ * Bad Request, since the suggestions can't take them into account.
+ */
+@WebServlet("/suggest")
+public class SuggestServlet extends HttpServlet {
+  private static final int DEFAULT_SUGGESTIONS = 5;
+
+  private final Gson gson = new Gson();
+  private final FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+  private CalendarRepository repository;
+
+  @Override
+  public void init() {
+    repository = CalendarRepositoryListener.getRepository(getServletContext());
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    String problem = MeetingRequestHandler.problemWith(meetingRequest);
+    if (problem == null) {
+      problem = unsupported(meetingRequest);
+    }
+    if (problem != null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, problem);
+      return;
+    }
+    int count = meetingRequest.getSuggestions() > 0
+        ? meetingRequest.getSuggestions() : DEFAULT_SUGGESTIONS;
+    List<MeetingSuggestion> suggestions = findMeetingQuery.suggest(
+        repository.getSnapshot(), meetingRequest, TimeRange.WHOLE_DAY, count);
+
+    response.setContentType("application/json");
+    response.getWriter().println(gson.toJson(suggestions));
+  }
+
+  // Returns the first field of the request that suggestions can't honor, or null if there is none.
+  private static String unsupported(MeetingRequest request) {
+    if (request.getLimit() > 0) {
+      return "limit is not supported by /suggest; use suggestions";
+    }
+    if (request.getMinAttendance() > 0) {
+      return "min_attendance is not supported by /suggest";
+    }
+    if (request.getTimeBudgetMillis() > 0) {
+      return "time_budget_millis is not supported by /suggest";
+    }
+    return null;
+  }
+}
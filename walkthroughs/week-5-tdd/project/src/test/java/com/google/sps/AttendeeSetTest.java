@@ -0,0 +1,127 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeSetTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void behavesLikeASetOfNames() {
+    AttendeeSet attendees = AttendeeSet.of(Arrays.asList(PERSON_B, PERSON_A, PERSON_B));
+    Set<String> expected = new HashSet<>(Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertEquals(2, attendees.size());
+    Assert.assertTrue(attendees.contains(PERSON_A));
+    Assert.assertFalse(attendees.contains(PERSON_C));
+    Assert.assertFalse(attendees.contains("Nobody has this name"));
+    Assert.assertEquals(expected, attendees);
+    Assert.assertEquals(attendees, expected);
+    Assert.assertEquals(expected.hashCode(), attendees.hashCode());
+  }
+
+  @Test
+  public void intersects() {
+    AttendeeSet ab = AttendeeSet.of(Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertTrue(ab.intersects(AttendeeSet.of(Arrays.asList(PERSON_B, PERSON_C))));
+    Assert.assertFalse(ab.intersects(AttendeeSet.of(Arrays.asList(PERSON_C))));
+    Assert.assertFalse(ab.intersects(AttendeeSet.EMPTY));
+  }
+
+  @Test
+  public void withAddsOneName() {
+    AttendeeSet a = AttendeeSet.of(Arrays.asList(PERSON_A));
+
+    Assert.assertEquals(AttendeeSet.of(Arrays.asList(PERSON_C, PERSON_A)), a.with(PERSON_C));
+    Assert.assertSame(a, a.with(PERSON_A));
+    Assert.assertEquals(1, a.size());
+  }
+
+  @Test
+  public void eventJsonIsUnchanged() {
+    Event event = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A));
+
+    String json = new Gson().toJson(event);
+
+    Assert.assertTrue(json, json.contains("\"attendees\":[\"Person A\"]"));
+  }
+
+  @Test
+  public void requestNamesAreNotAddedToTheDictionary() {
+    AttendeeSet a = AttendeeSet.of(Arrays.asList(PERSON_A));
+    int size = AttendeeDictionary.global().size();
+
+    AttendeeSet request =
+        AttendeeSet.lookup(Arrays.asList(PERSON_A, "Never Seen 1", "Never Seen 2", PERSON_A));
+
+    Assert.assertEquals(size, AttendeeDictionary.global().size());
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(PERSON_A, "Never Seen 1", "Never Seen 2")), request);
+    Assert.assertTrue(request.contains("Never Seen 1"));
+    Assert.assertTrue(request.intersects(a));
+    Assert.assertFalse(AttendeeSet.lookup(Arrays.asList("Never Seen 1")).intersects(a));
+  }
+
+  @Test
+  public void unknownNamesMatchEventsAddedLater() {
+    AttendeeSet request = AttendeeSet.lookup(Arrays.asList("Shows Up Later"));
+
+    Event event = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList("Shows Up Later"));
+
+    Assert.assertTrue(event.getAttendeeSet().intersects(request));
+    Assert.assertEquals(event.getAttendeeSet(), request);
+  }
+
+  @Test
+  public void fullDictionaryGivesNoNewIds() {
+    AttendeeDictionary dictionary = new AttendeeDictionary(2);
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(-1, dictionary.intern(PERSON_C));
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(-1, dictionary.lookup(PERSON_C));
+    Assert.assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void requestJsonDoesNotGrowTheDictionary() {
+    int size = AttendeeDictionary.global().size();
+
+    MeetingRequest request = new Gson().fromJson(
+        "{\"attendees\":[\"Json Only 1\"],\"optional_attendees\":[\"Json Only 2\"],"
+            + "\"duration\":30}",
+        MeetingRequest.class);
+
+    Assert.assertEquals(size, AttendeeDictionary.global().size());
+    Assert.assertEquals(Arrays.asList("Json Only 1"), new ArrayList<>(request.getAttendees()));
+    Assert.assertTrue(request.getOptionalAttendees().contains("Json Only 2"));
+  }
+}
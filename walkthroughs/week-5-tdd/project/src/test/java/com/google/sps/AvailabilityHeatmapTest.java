@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityHeatmapTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0915AM = TimeRange.getTimeInMinutes(9, 15);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private AvailabilityHeatmap heatmap;
+
+  @Before
+  public void setUp() {
+    heatmap = new AvailabilityHeatmap();
+  }
+
+  @Test
+  public void countsFreePeoplePerMinute() {
+    EventIndex calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A, PERSON_B))));
+
+    int[] free = heatmap.query(calendar, Arrays.asList(PERSON_A, PERSON_B), 1);
+
+    Assert.assertEquals(TimeRange.WHOLE_DAY.duration(), free.length);
+    Assert.assertEquals(2, free[TIME_0900AM - 1]);
+    Assert.assertEquals(1, free[TIME_0900AM]);
+    Assert.assertEquals(0, free[TIME_0930AM]);
+    Assert.assertEquals(0, free[TIME_1000AM - 1]);
+    Assert.assertEquals(2, free[TIME_1000AM]);
+  }
+
+  @Test
+  public void partlyBusyBucketIsBusy() {
+    EventIndex calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0915AM, TIME_0930AM, false),
+            Arrays.asList(PERSON_A))));
+
+    int[] free = heatmap.query(calendar, Arrays.asList(PERSON_A), 60);
+
+    Assert.assertEquals(24, free.length);
+    Assert.assertEquals(1, free[8]);
+    Assert.assertEquals(0, free[9]);
+    Assert.assertEquals(1, free[10]);
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    Random random = new Random(11);
+    List<String> people = Arrays.asList("P1", "P2", "P3", "P4", "P5", "P6");
+
+    for (int i = 0; i < 100; i++) {
+      List<Event> events = new ArrayList<>();
+      for (int j = 0; j < 20; j++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = random.nextInt(Math.min(180, TimeRange.WHOLE_DAY.duration() - start + 1));
+        events.add(new Event("Event " + j, TimeRange.fromStartDuration(start, duration),
+            Arrays.asList(people.get(random.nextInt(people.size())))));
+      }
+      int bucketMinutes = 1 + random.nextInt(90);
+
+      int[] actual = heatmap.query(new EventIndex(events), people, bucketMinutes);
+
+      for (int bucket = 0; bucket < actual.length; bucket++) {
+        int start = bucket * bucketMinutes;
+        TimeRange range = TimeRange.fromStartEnd(
+            start, Math.min(start + bucketMinutes, TimeRange.WHOLE_DAY.duration()), false);
+        int expected = 0;
+        for (String person : people) {
+          boolean busy = false;
+          for (Event event : events) {
+            busy |= event.getAttendees().contains(person) && event.getWhen().duration() > 0
+                && event.getWhen().overlaps(range);
+          }
+          expected += busy ? 0 : 1;
+        }
+        Assert.assertEquals(expected, actual[bucket]);
+      }
+    }
+  }
+}
@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BitsetMeetingQueryTest {
+  private static final Collection<Event> NO_EVENTS = Collections.emptySet();
+
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String OPTIONAL_A = "Optional A";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private BitsetMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new BitsetMeetingQuery();
+  }
+
+  @Test
+  public void noEventsGivesWholeDay() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(NO_EVENTS, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void everyAttendeeIsConsidered() {
+    // Events  :       |--A--|     |--B--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|     |--3--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void fallsBackToRequiredAttendees() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(OPTIONAL_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(OPTIONAL_A);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void rangesOnWordBoundaries() {
+    // Minute 64 is the first minute of the second word in the mask.
+    MinuteMask mask = new MinuteMask();
+    mask.add(TimeRange.fromStartEnd(63, 65, false));
+    mask.add(TimeRange.fromStartEnd(1400, 1440, false));
+
+    Assert.assertFalse(mask.isBusy(62));
+    Assert.assertTrue(mask.isBusy(63));
+    Assert.assertTrue(mask.isBusy(64));
+    Assert.assertFalse(mask.isBusy(65));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 63, false), TimeRange.fromStartEnd(65, 1400, false)),
+        mask.freeRanges(1));
+  }
+
+  @Test
+  public void matchesFindMeetingQuery() {
+    // Compare both engines on a large number of random calendars.
+    Random random = new Random(42);
+    FindMeetingQuery expectedQuery = new FindMeetingQuery();
+    List<String> people = Arrays.asList("A", "B", "C", "D", "E", "F");
+
+    for (int i = 0; i < 2000; i++) {
+      List<Event> events = new ArrayList<>();
+      int eventCount = random.nextInt(12);
+      for (int j = 0; j < eventCount; j++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = random.nextInt(TimeRange.WHOLE_DAY.duration() - start + 1);
+        events.add(new Event("Event " + j, TimeRange.fromStartDuration(start, duration),
+            Arrays.asList(people.get(random.nextInt(people.size())))));
+      }
+
+      List<String> required = new ArrayList<>();
+      for (String person : people.subList(0, 3)) {
+        if (random.nextBoolean()) {
+          required.add(person);
+        }
+      }
+      MeetingRequest request = new MeetingRequest(required, 1 + random.nextInt(240));
+      for (String person : people.subList(3, people.size())) {
+        if (random.nextBoolean()) {
+          request.addOptionalAttendee(person);
+        }
+      }
+
+      Assert.assertEquals(
+          expectedQuery.query(events, request), new ArrayList<>(query.query(events, request)));
+    }
+  }
+}
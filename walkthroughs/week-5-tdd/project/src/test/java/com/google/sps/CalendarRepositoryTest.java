@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarRepositoryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final Event EVENT_A = new Event("Event A",
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A));
+  private static final Event EVENT_B = new Event("Event B",
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_B));
+
+  private CalendarRepository repository;
+
+  @Before
+  public void setUp() {
+    repository = new CalendarRepository(Arrays.asList(EVENT_A));
+  }
+
+  @Test
+  public void oldSnapshotsDoNotChange() {
+    CalendarSnapshot before = repository.getSnapshot();
+
+    CalendarSnapshot after = repository.update(Arrays.asList(EVENT_B), Arrays.asList(EVENT_A));
+
+    Assert.assertSame(after, repository.getSnapshot());
+    Assert.assertEquals(Arrays.asList(EVENT_A), before.getEvents());
+    Assert.assertEquals(Arrays.asList(EVENT_B), after.getEvents());
+    Assert.assertEquals(Arrays.asList(EVENT_A.getWhen()),
+        new ArrayList<>(before.getBusyTimes(PERSON_A)));
+    Assert.assertEquals(Collections.emptyList(), new ArrayList<>(after.getBusyTimes(PERSON_A)));
+    Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+  }
+
+  @Test
+  public void removesOneCopyOfAnEvent() {
+    repository.addEvents(Arrays.asList(EVENT_A));
+
+    CalendarSnapshot snapshot =
+        repository.update(Collections.<Event>emptyList(), Arrays.asList(EVENT_A, EVENT_B));
+
+    Assert.assertEquals(Arrays.asList(EVENT_A), snapshot.getEvents());
+  }
+
+  @Test
+  public void onlyChangedAttendeesGetNewVersions() {
+    CalendarSnapshot added = repository.addEvents(Arrays.asList(EVENT_B));
+    CalendarSnapshot removed =
+        repository.update(Collections.<Event>emptyList(), Arrays.asList(EVENT_B));
+    CalendarSnapshot later = repository.addEvents(Collections.<Event>emptyList());
+
+    Assert.assertEquals(0, later.getVersion(PERSON_A));
+    Assert.assertEquals(added.getVersion(), added.getVersion(PERSON_B));
+    // Somebody whose last event went away still remembers when that happened.
+    Assert.assertEquals(removed.getVersion(), later.getVersion(PERSON_B));
+  }
+
+  @Test
+  public void stagedEventsArePublishedTogether() {
+    CalendarSnapshot before = repository.getSnapshot();
+    CalendarRepository.Staging staging = repository.stage();
+
+    staging.add(Arrays.asList(EVENT_B));
+    staging.add(Arrays.asList(EVENT_B));
+    Assert.assertSame(before, repository.getSnapshot());
+    CalendarSnapshot after = staging.publish();
+
+    Assert.assertSame(after, repository.getSnapshot());
+    Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+    Assert.assertEquals(Arrays.asList(EVENT_A, EVENT_B, EVENT_B), after.getEvents());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void stagingIsPublishedOnce() {
+    CalendarRepository.Staging staging = repository.stage();
+    staging.publish();
+
+    staging.publish();
+  }
+
+  @Test
+  public void cacheFollowsSnapshots() {
+    MeetingQueryCache cache = new MeetingQueryCache(10);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    CalendarSnapshot first = repository.getSnapshot();
+    cache.query(first, request);
+
+    cache.query(repository.addEvents(Arrays.asList(EVENT_B)), request);
+    Collection<TimeRange> answer =
+        cache.query(repository.update(Collections.<Event>emptyList(), Arrays.asList(EVENT_A)),
+            request);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), new ArrayList<>(answer));
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+  }
+}
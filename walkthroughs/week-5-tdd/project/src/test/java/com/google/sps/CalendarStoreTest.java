@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartEnd(TIME_0830AM, TIME_0930AM, false), Arrays.asList(PERSON_A, PERSON_B));
+  private static final Event EVENT_3 = new Event("Event 3",
+      TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false), Arrays.asList(PERSON_A));
+
+  private CalendarStore store;
+
+  @Before
+  public void setUp() {
+    store = new CalendarStore();
+  }
+
+  @Test
+  public void mergesOverlappingAndTouchingEvents() {
+    store.addEvent(EVENT_3);
+    store.addEvent(EVENT_1);
+    store.addEvent(EVENT_2);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false)),
+        new ArrayList<>(store.getBusyTimes(PERSON_A)));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0830AM, TIME_0930AM, false)),
+        new ArrayList<>(store.getBusyTimes(PERSON_B)));
+  }
+
+  @Test
+  public void removingAnEventSplitsTheInterval() {
+    store.addEvent(EVENT_1);
+    store.addEvent(EVENT_2);
+    store.addEvent(EVENT_3);
+
+    Assert.assertTrue(store.removeEvent(EVENT_2));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false)),
+        new ArrayList<>(store.getBusyTimes(PERSON_A)));
+    Assert.assertEquals(Collections.emptyList(), new ArrayList<>(store.getBusyTimes(PERSON_B)));
+  }
+
+  @Test
+  public void duplicateEventsAreCounted() {
+    store.addEvent(EVENT_1);
+    store.addEvent(EVENT_1);
+
+    Assert.assertTrue(store.removeEvent(EVENT_1));
+    Assert.assertEquals(Arrays.asList(EVENT_1.getWhen()),
+        new ArrayList<>(store.getBusyTimes(PERSON_A)));
+    Assert.assertTrue(store.removeEvent(EVENT_1));
+    Assert.assertFalse(store.removeEvent(EVENT_1));
+    Assert.assertEquals(0, store.size());
+  }
+
+  @Test
+  public void queryMatchesRebuiltIndex() {
+    // Apply random changes and check the store answers like an index built from scratch.
+    Random random = new Random(7);
+    List<String> people = Arrays.asList("A", "B", "C", "D");
+    List<Event> events = new ArrayList<>();
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (int i = 0; i < 500; i++) {
+      if (!events.isEmpty() && random.nextInt(3) == 0) {
+        Event removed = events.remove(random.nextInt(events.size()));
+        Assert.assertTrue(store.removeEvent(removed));
+      } else {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = random.nextInt(Math.min(180, TimeRange.WHOLE_DAY.duration() - start + 1));
+        Event added = new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+            Arrays.asList(people.get(random.nextInt(people.size())),
+                people.get(random.nextInt(people.size()))));
+        events.add(added);
+        store.addEvent(added);
+      }
+
+      MeetingRequest request = new MeetingRequest(Arrays.asList("A", "B"), 15);
+      request.addOptionalAttendee("C");
+      Assert.assertEquals(
+          query.query(new EventIndex(events), request), query.query(store, request));
+    }
+  }
+}
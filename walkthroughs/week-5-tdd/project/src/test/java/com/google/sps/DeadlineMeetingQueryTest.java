@@ -0,0 +1,194 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class DeadlineMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+  private static final String PERSON_D = "Person D";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  // The times that suit A alone.
+  private static final List<TimeRange> REQUIRED_A_SLOTS = Arrays.asList(
+      TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+      TimeRange.fromStartEnd(TIME_1100AM, TIME_1200PM, false));
+
+  // A has three events, C two and B one, so B is checked first and A last.
+  private EventIndex calendar;
+
+  // Every reading of the clock is one nanosecond after the one before.
+  private long now;
+  private DeadlineMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    calendar = new EventIndex(Arrays.asList(
+        event(TIME_0800AM, TIME_0900AM, PERSON_A),
+        event(TIME_1000AM, TIME_1100AM, PERSON_A),
+        event(TIME_1200PM, TimeRange.END_OF_DAY + 1, PERSON_A),
+        event(TIME_0900AM, TIME_1000AM, PERSON_B),
+        event(TimeRange.START_OF_DAY, TIME_0800AM, PERSON_C),
+        event(TIME_1100AM, TIME_1200PM, PERSON_C)));
+    now = 0;
+    query = new DeadlineMeetingQuery(() -> now++);
+  }
+
+  @Test
+  public void noBudgetChecksEveryone() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES);
+
+    DeadlineMeetingQuery.Result result = query.query(calendar, request);
+
+    Assert.assertTrue(result.isComplete());
+    Assert.assertEquals(Collections.emptyList(), result.getUncheckedAttendees());
+    Assert.assertEquals(new ArrayList<>(new FindMeetingQuery().query(calendar, request)),
+        result.getSlots());
+  }
+
+  @Test
+  public void deadlineLeavesCostliestAttendeeUnchecked() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES);
+
+    // Time for two attendees.
+    DeadlineMeetingQuery.Result result = query.query(calendar, request, TimeRange.WHOLE_DAY, 2);
+
+    Assert.assertFalse(result.isComplete());
+    Assert.assertEquals(Arrays.asList(PERSON_A), result.getUncheckedAttendees());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+        TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true)), result.getSlots());
+  }
+
+  @Test
+  public void optionalAttendeesAreCheckedLast() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    // Time for A and B, the cheaper optional attendee.
+    DeadlineMeetingQuery.Result result = query.query(calendar, request, TimeRange.WHOLE_DAY, 2);
+
+    Assert.assertFalse(result.isComplete());
+    Assert.assertEquals(Arrays.asList(PERSON_C), result.getUncheckedAttendees());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, TIME_0800AM, false),
+        TimeRange.fromStartEnd(TIME_1100AM, TIME_1200PM, false)), result.getSlots());
+  }
+
+  @Test
+  public void checkedOptionalAttendeesWithNoTimeLeaveRequiredSlots() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+    calendar = new EventIndex(Arrays.asList(
+        event(TIME_0800AM, TIME_0900AM, PERSON_A),
+        event(TIME_1000AM, TIME_1100AM, PERSON_A),
+        event(TIME_1200PM, TimeRange.END_OF_DAY + 1, PERSON_A),
+        event(TimeRange.START_OF_DAY, TIME_0800AM, PERSON_C),
+        event(TIME_1100AM, TIME_1200PM, PERSON_C),
+        event(TimeRange.START_OF_DAY, TimeRange.END_OF_DAY + 1, PERSON_D)));
+
+    // Time for A and D, who is busy all day; C is never checked.
+    DeadlineMeetingQuery.Result result = query.query(calendar, request, TimeRange.WHOLE_DAY, 2);
+
+    Assert.assertFalse(result.isComplete());
+    Assert.assertEquals(Arrays.asList(PERSON_C), result.getUncheckedAttendees());
+    Assert.assertEquals(REQUIRED_A_SLOTS, result.getSlots());
+  }
+
+  @Test
+  public void readCutShortLeavesAttendeeUnchecked() {
+    // D has a one-minute event every other minute, more than fit between two checks of the clock.
+    List<Event> events = new ArrayList<>(Arrays.asList(
+        event(TIME_0800AM, TIME_0900AM, PERSON_A),
+        event(TIME_1000AM, TIME_1100AM, PERSON_A),
+        event(TIME_1200PM, TimeRange.END_OF_DAY + 1, PERSON_A)));
+    for (int i = 0; i < 2 * DeadlineMeetingQuery.CLOCK_CHECK_INTERVAL; i++) {
+      events.add(event(2 * i, 2 * i + 1, PERSON_D));
+    }
+    calendar = new EventIndex(events);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_D);
+
+    // The deadline passes while D is being read, so none of D's busy times count.
+    DeadlineMeetingQuery.Result result = query.query(calendar, request, TimeRange.WHOLE_DAY, 2);
+
+    Assert.assertFalse(result.isComplete());
+    Assert.assertEquals(Arrays.asList(PERSON_D), result.getUncheckedAttendees());
+    Assert.assertEquals(REQUIRED_A_SLOTS, result.getSlots());
+  }
+
+  @Test
+  public void slowReadRunsPastTheDeadline() {
+    // Reading B, who goes first, takes far longer than the whole budget.
+    CalendarView slowForB = new CalendarView() {
+      @Override
+      public Collection<TimeRange> getBusyTimes(String attendee) {
+        return calendar.getBusyTimes(attendee);
+      }
+
+      @Override
+      public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+        if (attendee.equals(PERSON_B)) {
+          now += 1000;
+        }
+        return calendar.getBusyTimes(attendee, window);
+      }
+
+      @Override
+      public int estimateBusyTimes(String attendee) {
+        return calendar.estimateBusyTimes(attendee);
+      }
+    };
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES);
+
+    DeadlineMeetingQuery.Result result = query.query(slowForB, request, TimeRange.WHOLE_DAY, 5);
+
+    // B's read started in time, so it is finished and counted; nobody after it is read.
+    Assert.assertTrue(now > 5);
+    Assert.assertFalse(result.isComplete());
+    Assert.assertEquals(Arrays.asList(PERSON_C, PERSON_A), result.getUncheckedAttendees());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true)), result.getSlots());
+  }
+
+  private static Event event(int start, int end, String attendee) {
+    return new Event("Event", TimeRange.fromStartEnd(start, end, false), Arrays.asList(attendee));
+  }
+}
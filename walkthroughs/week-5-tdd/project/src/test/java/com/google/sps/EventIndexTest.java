@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final Event EVENT_A = new Event("Event 1",
+      TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(8, 0), DURATION_30_MINUTES),
+      Arrays.asList(PERSON_A));
+  private static final Event EVENT_AB = new Event("Event 2",
+      TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(9, 0), DURATION_30_MINUTES),
+      Arrays.asList(PERSON_A, PERSON_B));
+
+  @Test
+  public void groupsEventsByAttendee() {
+    EventIndex index = new EventIndex(Arrays.asList(EVENT_A, EVENT_AB));
+
+    Assert.assertEquals(Arrays.asList(EVENT_A, EVENT_AB), index.getEvents(PERSON_A));
+    Assert.assertEquals(Arrays.asList(EVENT_AB), index.getEvents(PERSON_B));
+    Assert.assertEquals(Collections.emptyList(), index.getEvents(PERSON_C));
+  }
+
+  @Test
+  public void queryMatchesFullScan() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    EventIndex index = new EventIndex(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (String attendee : index.getAttendees()) {
+      MeetingRequest request = new MeetingRequest(Arrays.asList(attendee), DURATION_30_MINUTES);
+      request.addOptionalAttendee("Emma");
+
+      Assert.assertEquals(query.query(events, request), query.query(index, request));
+    }
+  }
+}
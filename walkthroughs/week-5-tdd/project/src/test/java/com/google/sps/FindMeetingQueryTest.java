@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -418,4 +419,234 @@ public final class FindMeetingQueryTest {
 
       Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shortLeadingGapIsNotOffered() {
+    // The gap before the first event is too short for the meeting, just like any other gap.
+    //
+    // Events  :  |--A--|
+    // Day     : |---------------------|
+    // Options :        |--------------|
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(DURATION_30_MINUTES, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(DURATION_60_MINUTES, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void busyMorningLeavesRestOfDay() {
+    // Being busy from the start of the day still leaves the rest of the day open.
+    //
+    // Events  : |--A--|
+    // Day     : |---------------------|
+    // Options :       |---------------|
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+        Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void busyOptionalAttendeeDoesNotHideFreeRequiredAttendee() {
+    // The required attendee has no events at all, so the whole day works once the optional
+    // attendee, who is busy all day, is ignored.
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.WHOLE_DAY, Arrays.asList(OPTIONAL_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(OPTIONAL_A);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void limitReturnsEarliestTimes() {
+    // Events  :       |--A--|     |--A--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|     |--3--|
+    // Limit 2 : |--1--|     |--2--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.setLimit(2);
+
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false));
+
+    Assert.assertEquals(expected, query.query(events, request));
+    Assert.assertEquals(expected, query.query(new CalendarStore(events), request));
+  }
+
+  @Test
+  public void earliestStartCutsFirstTime() {
+    // Events       :       |--A--|
+    // Day          : |-----------------------------|
+    // Earliest     :   ^
+    // Options      :   |-1-|     |--------2--------|
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.setEarliestStart(TIME_0800AM);
+
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, query.query(events, request));
+    Assert.assertEquals(expected, query.query(new CalendarStore(events), request));
+  }
+
+  @Test
+  public void nextAvailableAcrossDays() {
+    // Person A is busy all of the first day, so the next free hour is at the start of the second.
+    TimeRange horizon = HorizonMeetingQuery.days(LocalDate.of(2020, 1, 1), 7);
+    int secondDay = horizon.start() + TimeRange.WHOLE_DAY.duration();
+    Collection<Event> events = Arrays.asList(new Event("Offsite",
+        TimeRange.fromStartEnd(horizon.start(), secondDay, false), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.setLimit(1);
+
+    Collection<TimeRange> actual = query.query(new CalendarStore(events), request, horizon);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(secondDay, horizon.end(), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void suggestPrefersPreferredHours() {
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.setPreferredHours(TimeRange.fromStartEnd(TIME_0830AM, TIME_1100AM, false));
+
+    List<MeetingSuggestion> actual =
+        query.suggest(new CalendarStore(events), request, TimeRange.WHOLE_DAY, 2);
+
+    // 10:00 fits entirely, 10:15 has a quarter of an hour outside of the preferred hours and 8:00
+    // has half an hour.
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1000AM, DURATION_1_HOUR),
+        actual.get(0).getWhen());
+    Assert.assertEquals(0, actual.get(0).getScore());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1000AM + 15, DURATION_1_HOUR),
+        actual.get(1).getWhen());
+    Assert.assertEquals(-15, actual.get(1).getScore());
+  }
+
+  @Test
+  public void suggestAvoidsBackToBack() {
+    // Events  : |--A--|     |--A--|
+    // Free    :       |-----|
+    // Best    :         |-|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.setAvoidBackToBack(true);
+
+    List<MeetingSuggestion> actual =
+        query.suggest(new CalendarStore(events), request, TimeRange.WHOLE_DAY, 1);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM + 15,
+        DURATION_30_MINUTES)), Arrays.asList(actual.get(0).getWhen()));
+  }
+
+  @Test
+  public void suggestMinimizesFragmentation() {
+    // Placing the meeting at either edge of the free hour leaves half an hour that can still be
+    // used. Anywhere in between leaves two bits that can't.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.setMinimizeFragmentation(true);
+
+    List<TimeRange> actual = new ArrayList<>();
+    for (MeetingSuggestion suggestion :
+        query.suggest(new CalendarStore(events), request, TimeRange.WHOLE_DAY, 3)) {
+      actual.add(suggestion.getWhen());
+    }
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES),
+            TimeRange.fromStartDuration(TIME_0900AM + 15, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void recordsStatsOfTheLastQuery() {
+    // Person A's two events merge into one busy interval; Person C's event doesn't count.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_1000AM, DURATION_1_HOUR),
+            Arrays.asList(PERSON_C)));
+    QueryMetrics metrics = new QueryMetrics();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    new FindMeetingQuery(null, metrics).query(events, request);
+    QueryStats stats = FindMeetingQuery.lastQueryStats();
+
+    Assert.assertEquals(3, stats.getEventsScanned());
+    Assert.assertEquals(2, stats.getAttendeeMatches());
+    Assert.assertEquals(2, stats.getIntervalsBeforeMerge());
+    Assert.assertEquals(1, stats.getIntervalsAfterMerge());
+    Assert.assertEquals(2, stats.getSlots());
+    Assert.assertEquals(1,
+        metrics.getHistograms().get("slots").getCounts()[LogHistogram.bucketOf(2)]);
+  }
+
+  @Test
+  public void statsStartOverWhenAnsweredFromAGroupView() {
+    CalendarStore calendar = new CalendarStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    FindMeetingQuery query = new FindMeetingQuery(new GroupViews(2, 10, 1 << 20));
+    // The first query merges busy times, and makes the group hot.
+    query.query(calendar, request);
+    Assert.assertEquals(1, FindMeetingQuery.lastQueryStats().getIntervalsBeforeMerge());
+
+    query.query(calendar, request);
+    QueryStats stats = FindMeetingQuery.lastQueryStats();
+
+    Assert.assertEquals(0, stats.getIntervalsBeforeMerge());
+    Assert.assertEquals(0, stats.getEventsScanned());
+    Assert.assertEquals(2, stats.getSlots());
+  }
+}
@@ -0,0 +1,136 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class GroupViewsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  @Test
+  public void groupGetsViewOnceHot() {
+    GroupViews views = new GroupViews(2, 10, 1 << 20);
+    CalendarStore calendar = new CalendarStore(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    Assert.assertNull(views.query(calendar, request));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true)),
+        views.query(calendar, request));
+    Assert.assertEquals(1, views.size());
+
+    // Another duration for the same group is a lookup.
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true)),
+        views.query(calendar, new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), 60)));
+    Assert.assertEquals(1, views.getHits());
+  }
+
+  @Test
+  public void viewIsRebuiltWhenMemberChanges() {
+    GroupViews views = new GroupViews(1, 10, 1 << 20);
+    CalendarStore calendar = new CalendarStore();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), views.query(calendar, request));
+
+    // A change to somebody else leaves the view alone.
+    calendar.addEvent(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_B)));
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), views.query(calendar, request));
+    Assert.assertEquals(0, views.getRebuilds());
+
+    calendar.addEvent(new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A)));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true)),
+        views.query(calendar, request));
+    Assert.assertEquals(1, views.getRebuilds());
+  }
+
+  @Test
+  public void coldestViewIsEvicted() {
+    GroupViews views = new GroupViews(1, 2, 1 << 20);
+    CalendarStore calendar = new CalendarStore();
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), 30);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), 30);
+
+    views.query(calendar, requestA);
+    views.query(calendar, requestB);
+    views.query(calendar, requestA);
+    views.query(calendar, requestC);
+
+    Assert.assertEquals(2, views.size());
+    Assert.assertEquals(1, views.getHits());
+    // B was used longest ago, so it went; A is still there.
+    views.query(calendar, requestA);
+    Assert.assertEquals(2, views.getHits());
+  }
+
+  @Test
+  public void memoryBudgetIsKept() {
+    GroupViews views = new GroupViews(1, 100, 1000);
+    CalendarStore calendar = new CalendarStore();
+    for (int i = 0; i < 50; i++) {
+      views.query(calendar, new MeetingRequest(Arrays.asList("Person " + i), 30));
+    }
+
+    Assert.assertTrue(views.size() < 50);
+    Assert.assertTrue(views.getBytes() <= 1000);
+  }
+
+  @Test
+  public void answersMatchQueryWithoutViews() {
+    Random random = new Random(23);
+    List<String> people = Arrays.asList("P1", "P2", "P3", "P4");
+    FindMeetingQuery withViews = new FindMeetingQuery(new GroupViews(1, 10, 1 << 20));
+    FindMeetingQuery withoutViews = new FindMeetingQuery();
+    CalendarStore calendar = new CalendarStore();
+
+    for (int i = 0; i < 200; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = random.nextInt(Math.min(120, TimeRange.WHOLE_DAY.duration() - start + 1));
+      calendar.addEvent(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Collections.singletonList(people.get(random.nextInt(people.size())))));
+
+      MeetingRequest request =
+          new MeetingRequest(people.subList(0, 1 + random.nextInt(2)), 1 + random.nextInt(90));
+      request.addOptionalAttendee(people.get(3));
+      Collection<TimeRange> expected = withoutViews.query(calendar, request);
+      Assert.assertEquals(new ArrayList<>(expected),
+          new ArrayList<>(withViews.query(calendar, request)));
+    }
+  }
+}
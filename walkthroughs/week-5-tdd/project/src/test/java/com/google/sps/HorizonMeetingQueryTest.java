@@ -0,0 +1,172 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int MINUTES_PER_HOUR = 60;
+
+  // The first day of the year 2020, in minutes since the epoch.
+  private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+  private static final int DAY_1 = HorizonMeetingQuery.days(FIRST_DAY, 1).start();
+  private static final int DAY_2 = DAY_1 + MINUTES_PER_DAY;
+
+  private static final int DURATION_2_HOURS = 2 * MINUTES_PER_HOUR;
+  private static final int DURATION_36_HOURS = 36 * MINUTES_PER_HOUR;
+
+  private HorizonMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new HorizonMeetingQuery();
+  }
+
+  @Test
+  public void meetingsCanCrossMidnight() {
+    // Person A is busy until 23:00 on the first day and person B from 01:00 on the second day, so
+    // the only option is the two hours around midnight.
+    CalendarStore calendar = new CalendarStore(Arrays.asList(
+        new Event("Late", TimeRange.fromStartEnd(DAY_1, DAY_1 + 23 * MINUTES_PER_HOUR, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Early", TimeRange.fromStartEnd(DAY_2 + MINUTES_PER_HOUR,
+            DAY_2 + MINUTES_PER_DAY, false), Arrays.asList(PERSON_B))));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_2_HOURS);
+
+    Collection<TimeRange> actual =
+        query.query(calendar, request, HorizonMeetingQuery.days(FIRST_DAY, 2), Integer.MAX_VALUE);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(
+        DAY_1 + 23 * MINUTES_PER_HOUR, DAY_2 + MINUTES_PER_HOUR, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void meetingsCanBeLongerThanADay() {
+    CalendarStore calendar = new CalendarStore(Arrays.asList(
+        new Event("Morning", TimeRange.fromStartDuration(DAY_1, MINUTES_PER_HOUR),
+            Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_36_HOURS);
+
+    Collection<TimeRange> actual =
+        query.query(calendar, request, HorizonMeetingQuery.days(FIRST_DAY, 2), Integer.MAX_VALUE);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(DAY_1 + MINUTES_PER_HOUR, DAY_2 + MINUTES_PER_DAY, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void onlyVisitsTheCalendarUpToTheLimit() {
+    // Person A has a meeting every hour for a quarter. Asking for the first two slots should only
+    // look at the first few of them.
+    List<Event> events = new ArrayList<>();
+    for (int hour = 0; hour < 90 * 24; hour++) {
+      events.add(new Event("Meeting " + hour,
+          TimeRange.fromStartDuration(DAY_1 + hour * MINUTES_PER_HOUR, 45),
+          Arrays.asList(PERSON_A)));
+    }
+    CountingCalendar calendar = new CountingCalendar(new CalendarStore(events));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 15);
+
+    Collection<TimeRange> actual =
+        query.query(calendar, request, HorizonMeetingQuery.days(FIRST_DAY, 90), 2);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(DAY_1 + 45, 15),
+            TimeRange.fromStartDuration(DAY_1 + MINUTES_PER_HOUR + 45, 15));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertTrue(calendar.visited <= 4);
+  }
+
+  @Test
+  public void matchesFindMeetingQueryForOneDay() {
+    Random random = new Random(11);
+    List<String> people = Arrays.asList("A", "B", "C", "D");
+    FindMeetingQuery expectedQuery = new FindMeetingQuery();
+
+    for (int i = 0; i < 1000; i++) {
+      List<Event> events = new ArrayList<>();
+      int eventCount = random.nextInt(10);
+      for (int j = 0; j < eventCount; j++) {
+        int start = random.nextInt(MINUTES_PER_DAY);
+        int duration = random.nextInt(MINUTES_PER_DAY - start + 1);
+        events.add(new Event("Event " + j, TimeRange.fromStartDuration(start, duration),
+            Arrays.asList(people.get(random.nextInt(people.size())))));
+      }
+      MeetingRequest request = new MeetingRequest(people.subList(0, 2), 1 + random.nextInt(180));
+      request.addOptionalAttendee(people.get(2 + random.nextInt(2)));
+
+      Collection<TimeRange> expected = expectedQuery.query(events, request);
+      Assert.assertEquals(expected, query.query(
+          new CalendarStore(events), request, TimeRange.WHOLE_DAY, Integer.MAX_VALUE));
+      Assert.assertEquals(expected, query.query(
+          new EventIndex(events), request, TimeRange.WHOLE_DAY, Integer.MAX_VALUE));
+    }
+  }
+
+  // Counts how many busy times a query reads.
+  private static final class CountingCalendar implements CalendarView {
+    private final CalendarView calendar;
+    private int visited;
+
+    CountingCalendar(CalendarView calendar) {
+      this.calendar = calendar;
+    }
+
+    @Override
+    public Collection<TimeRange> getBusyTimes(String attendee) {
+      return calendar.getBusyTimes(attendee);
+    }
+
+    @Override
+    public Iterable<TimeRange> getBusyTimes(String attendee, TimeRange window) {
+      Iterable<TimeRange> busyTimes = calendar.getBusyTimes(attendee, window);
+      return () -> {
+        Iterator<TimeRange> iterator = busyTimes.iterator();
+        return new Iterator<TimeRange>() {
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public TimeRange next() {
+            visited++;
+            return iterator.next();
+          }
+        };
+      };
+    }
+  }
+}
@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IcsImporterTest {
+
+  @Test
+  public void sendsEventsInBoundedBatches() throws IOException {
+    List<Integer> batchSizes = new ArrayList<>();
+
+    IcsImporter.Stats stats = new IcsImporter()
+        .importEvents(new StringReader(calendar(7)), 3, batch -> batchSizes.add(batch.size()));
+
+    Assert.assertEquals(7, stats.getImported());
+    Assert.assertEquals(3, stats.getBatches());
+    Assert.assertEquals(0, stats.getSkipped());
+    Assert.assertEquals(3, (int) batchSizes.get(0));
+    Assert.assertEquals(3, (int) batchSizes.get(1));
+    Assert.assertEquals(1, (int) batchSizes.get(2));
+  }
+
+  @Test
+  public void importsIntoRepository() throws IOException {
+    CalendarRepository repository = new CalendarRepository();
+
+    IcsImporter.Stats stats =
+        new IcsImporter().importInto(new StringReader(calendar(5)), repository, 2);
+
+    // The batches are all published in one snapshot.
+    Assert.assertEquals(5, stats.getImported());
+    Assert.assertEquals(3, stats.getBatches());
+    Assert.assertEquals(5, repository.getSnapshot().getEvents().size());
+    Assert.assertEquals(1, repository.getSnapshot().getVersion());
+  }
+
+  // Returns a calendar with one-hour events for the given number of people.
+  private static String calendar(int events) {
+    StringBuilder ics = new StringBuilder("BEGIN:VCALENDAR\r\n");
+    for (int i = 0; i < events; i++) {
+      ics.append("BEGIN:VEVENT\r\n")
+          .append("SUMMARY:Event ").append(i).append("\r\n")
+          .append("DTSTART:20200115T090000Z\r\n")
+          .append("DTEND:20200115T100000Z\r\n")
+          .append("ATTENDEE:mailto:person").append(i).append("@example.com\r\n")
+          .append("END:VEVENT\r\n");
+    }
+    return ics.append("END:VCALENDAR\r\n").toString();
+  }
+}
@@ -0,0 +1,142 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IcsParserTest {
+  // 2020-01-15 in minutes since the epoch.
+  private static final int JANUARY_15 =
+      (int) LocalDate.of(2020, 1, 15).toEpochDay() * TimeRange.WHOLE_DAY.duration();
+
+  @Test
+  public void readsFoldedEventAndIgnoresAlarms() throws IOException {
+    IcsParser parser = parser(
+        "BEGIN:VCALENDAR",
+        "BEGIN:VEVENT",
+        "SUMMARY:Design review\\, part 1",
+        "DTSTART:20200115T090000Z",
+        "DTEND:20200115T",
+        " 100000Z",
+        "ATTENDEE;CN=\"Doe: Jane\";ROLE=REQ-PARTICIPANT:mailto:jane@example.com",
+        "ORGANIZER:MAILTO:john@exam",
+        "\tple.com",
+        "BEGIN:VALARM",
+        "ATTENDEE:mailto:alarm@example.com",
+        "END:VALARM",
+        "END:VEVENT",
+        "END:VCALENDAR");
+
+    Event event = parser.nextEvent();
+
+    Assert.assertEquals("Design review, part 1", event.getTitle());
+    Assert.assertEquals(TimeRange.fromStartEnd(JANUARY_15 + 9 * 60, JANUARY_15 + 10 * 60, false),
+        event.getWhen());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("jane@example.com", "john@example.com")),
+        event.getAttendees());
+    Assert.assertNull(parser.nextEvent());
+  }
+
+  @Test
+  public void readsZonesDatesAndDurations() throws IOException {
+    IcsParser parser = parser(
+        "BEGIN:VEVENT",
+        "DTSTART;TZID=America/New_York:20200115T090000",
+        "DURATION:PT1H30M",
+        "ATTENDEE:mailto:a@example.com",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART;VALUE=DATE:20200115",
+        "ATTENDEE:mailto:a@example.com",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "DURATION:P1W",
+        "ATTENDEE:mailto:a@example.com",
+        "END:VEVENT");
+
+    // New York is five hours behind UTC in January.
+    Assert.assertEquals(TimeRange.fromStartDuration(JANUARY_15 + 14 * 60, 90),
+        parser.nextEvent().getWhen());
+    Assert.assertEquals(TimeRange.fromStartDuration(JANUARY_15, TimeRange.WHOLE_DAY.duration()),
+        parser.nextEvent().getWhen());
+    Assert.assertEquals(TimeRange.fromStartDuration(JANUARY_15 + 9 * 60, 7 * 24 * 60),
+        parser.nextEvent().getWhen());
+    Assert.assertNull(parser.nextEvent());
+  }
+
+  @Test
+  public void skipsFreeCancelledAndBrokenEvents() throws IOException {
+    IcsParser parser = parser(
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "TRANSP:TRANSPARENT",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "STATUS:CANCELLED",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART:not a time",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "DTEND:not a time either",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "DURATION:PT1X",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "DTEND:20200115T100000Z",
+        "END:VEVENT");
+
+    Assert.assertEquals(TimeRange.fromStartDuration(JANUARY_15 + 9 * 60, 60),
+        parser.nextEvent().getWhen());
+    Assert.assertNull(parser.nextEvent());
+    Assert.assertEquals(5, parser.getSkipped());
+  }
+
+  @Test
+  public void skipsEventCutOffByEndOfFile() throws IOException {
+    IcsParser parser = parser(
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "DTEND:20200115T100000Z",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "DTSTART:20200115T090000Z",
+        "DTEND:20200115T100000Z");
+
+    Assert.assertNotNull(parser.nextEvent());
+    Assert.assertNull(parser.nextEvent());
+    Assert.assertEquals(1, parser.getSkipped());
+  }
+
+  private static IcsParser parser(String... lines) {
+    return new IcsParser(new StringReader(String.join("\r\n", lines) + "\r\n"));
+  }
+}
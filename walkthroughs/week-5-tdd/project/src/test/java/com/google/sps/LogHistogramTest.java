@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class LogHistogramTest {
+  @Test
+  public void bucketsArePowersOfTwo() {
+    Assert.assertEquals(0, LogHistogram.bucketOf(-5));
+    Assert.assertEquals(0, LogHistogram.bucketOf(0));
+    Assert.assertEquals(1, LogHistogram.bucketOf(1));
+    Assert.assertEquals(2, LogHistogram.bucketOf(2));
+    Assert.assertEquals(2, LogHistogram.bucketOf(3));
+    Assert.assertEquals(3, LogHistogram.bucketOf(4));
+    Assert.assertEquals(63, LogHistogram.bucketOf(Long.MAX_VALUE));
+    Assert.assertEquals(7, LogHistogram.upperBound(LogHistogram.bucketOf(5)));
+  }
+
+  @Test
+  public void quantilesAreBucketBounds() {
+    LogHistogram histogram = new LogHistogram();
+    for (int i = 0; i < 90; i++) {
+      histogram.record(10);
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(1000);
+    }
+
+    Assert.assertEquals(15, histogram.getQuantile(0.5));
+    Assert.assertEquals(15, histogram.getQuantile(0.9));
+    Assert.assertEquals(1023, histogram.getQuantile(0.99));
+    Assert.assertEquals(100, histogram.getCounts()[4] + histogram.getCounts()[10]);
+  }
+
+  @Test
+  public void emptyHistogramHasNoQuantiles() {
+    Assert.assertEquals(0, new LogHistogram().getQuantile(0.99));
+  }
+}
@@ -0,0 +1,173 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MappedCalendarTest {
+  private static final List<String> PEOPLE =
+      Arrays.asList("Person A", "Person B", "Zo\u00eb", "\u674e\u96f7", "\ud83d\ude00 Smiley");
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void busyTimesMatchIndex() throws IOException {
+    List<Event> events = randomEvents(new Random(21), 200);
+    Path file = folder.newFile("calendar.snapshot").toPath();
+    SnapshotWriter.write(events, file);
+
+    MappedCalendar calendar = MappedCalendar.open(file);
+    EventIndex index = new EventIndex(events);
+    TimeRange window = TimeRange.fromStartEnd(600, 900, false);
+    for (String person : PEOPLE) {
+      Assert.assertEquals(toList(index.getBusyTimes(person, TimeRange.WHOLE_DAY)),
+          calendar.getBusyTimes(person));
+      Assert.assertEquals(toList(index.getBusyTimes(person, window)),
+          toList(calendar.getBusyTimes(person, window)));
+    }
+    Assert.assertTrue(calendar.getBusyTimes("Nobody").isEmpty());
+    Assert.assertEquals(events.size(), calendar.getEventCount());
+  }
+
+  @Test
+  public void windowsOverLongHistoriesMatchIndex() throws IOException {
+    // Two weeks of events in epoch minutes, so that everybody has many skip entries.
+    Random random = new Random(14);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      events.add(new Event("Event", TimeRange.fromStartDuration(random.nextInt(14 * 24 * 60),
+          1 + random.nextInt(i % 100 == 0 ? 2000 : 90)),
+          Arrays.asList(PEOPLE.get(random.nextInt(PEOPLE.size())))));
+    }
+
+    MappedCalendar calendar = readBack(events);
+    EventIndex index = new EventIndex(events);
+    for (int start = -60; start < 15 * 24 * 60; start += 97) {
+      TimeRange window = TimeRange.fromStartDuration(start, 45);
+      for (String person : PEOPLE) {
+        Assert.assertEquals(toList(index.getBusyTimes(person, window)),
+            toList(calendar.getBusyTimes(person, window)));
+      }
+    }
+  }
+
+  @Test
+  public void eventsRoundTrip() throws IOException {
+    List<Event> events = Arrays.asList(
+        new Event("Late", TimeRange.fromStartDuration(-30, 90), Arrays.asList("Zo\u00eb")),
+        new Event("Early", TimeRange.fromStartDuration(-600, 30),
+            Arrays.asList("Person A", "\u674e\u96f7")),
+        new Event("Nobody", TimeRange.fromStartDuration(100, 0), Arrays.<String>asList()));
+
+    List<String> actual = new ArrayList<>();
+    for (Event event : readBack(events).getEvents()) {
+      actual.add(event.getTitle() + " " + event.getWhen() + " " + event.getAttendees());
+    }
+    List<String> expected = Arrays.asList(
+        "Early " + TimeRange.fromStartDuration(-600, 30) + " " + events.get(1).getAttendees(),
+        "Late " + TimeRange.fromStartDuration(-30, 90) + " " + events.get(0).getAttendees(),
+        "Nobody " + TimeRange.fromStartDuration(100, 0) + " []");
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queriesRunOnSnapshot() throws IOException {
+    List<Event> events = randomEvents(new Random(7), 50);
+    MeetingRequest request = new MeetingRequest(PEOPLE.subList(0, 3), 30);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    Assert.assertEquals(new ArrayList<>(query.query(new EventIndex(events), request)),
+        new ArrayList<>(query.query(readBack(events), request)));
+  }
+
+  @Test(expected = IOException.class)
+  public void otherFilesAreRejected() throws IOException {
+    MappedCalendar.wrap(ByteBuffer.wrap("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n".getBytes("UTF-8")));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedFilesAreRejectedWhenOpened() throws IOException {
+    byte[] snapshot = write(randomEvents(new Random(5), 50));
+
+    MappedCalendar.wrap(ByteBuffer.wrap(Arrays.copyOf(snapshot, snapshot.length - 1)));
+  }
+
+  @Test(expected = IOException.class)
+  public void stringTablePastItsSectionIsRejected() throws IOException {
+    ByteBuffer snapshot = ByteBuffer.wrap(write(randomEvents(new Random(5), 50)));
+    // Make the last string end a byte later than it does.
+    int lastStringOffset = 4 * (SnapshotWriter.HEADER_INTS + snapshot.getInt(8));
+    snapshot.putInt(lastStringOffset, snapshot.getInt(lastStringOffset) + 1);
+
+    MappedCalendar.wrap(snapshot);
+  }
+
+  @Test(expected = IOException.class)
+  public void stringOffsetsOutOfOrderAreRejected() throws IOException {
+    ByteBuffer snapshot = ByteBuffer.wrap(write(randomEvents(new Random(5), 50)));
+    // Make a string in the middle of the table end after the one that follows it.
+    int offset = 4 * (SnapshotWriter.HEADER_INTS + snapshot.getInt(8) / 2);
+    snapshot.putInt(offset, snapshot.getInt(offset + 4) + 1);
+
+    MappedCalendar.wrap(snapshot);
+  }
+
+  private static MappedCalendar readBack(List<Event> events) throws IOException {
+    return MappedCalendar.wrap(ByteBuffer.wrap(write(events)));
+  }
+
+  private static byte[] write(List<Event> events) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SnapshotWriter.write(events, out);
+    return out.toByteArray();
+  }
+
+  private static List<TimeRange> toList(Iterable<TimeRange> ranges) {
+    List<TimeRange> list = new ArrayList<>();
+    for (TimeRange range : ranges) {
+      list.add(range);
+    }
+    return list;
+  }
+
+  private static List<Event> randomEvents(Random random, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = random.nextInt(Math.min(120, TimeRange.WHOLE_DAY.duration() - start + 1));
+      events.add(new Event("Event " + (i % 10), TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(PEOPLE.get(random.nextInt(PEOPLE.size())),
+              PEOPLE.get(random.nextInt(PEOPLE.size())))));
+    }
+    return events;
+  }
+}
@@ -0,0 +1,186 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MaxOptionalAttendeesQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String OPTIONAL_A = "Optional A";
+  private static final String OPTIONAL_B = "Optional B";
+  private static final String OPTIONAL_C = "Optional C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private MaxOptionalAttendeesQuery query;
+
+  @Before
+  public void setUp() {
+    query = new MaxOptionalAttendeesQuery();
+  }
+
+  @Test
+  public void picksTheTimesMostOptionalAttendeesCanMake() {
+    // Nobody is free at the same time as everyone else, but A and B are both free from 10 to 11.
+    //
+    // Events  : |------A------|   |---------A---------|
+    //           |------B------|       |-------B-------|
+    //                         |----------C------------|
+    // Options :               |-1-|
+    EventIndex calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            Arrays.asList(OPTIONAL_A, OPTIONAL_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(OPTIONAL_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(OPTIONAL_B)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(OPTIONAL_C))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    request.addOptionalAttendee(OPTIONAL_A);
+    request.addOptionalAttendee(OPTIONAL_B);
+    request.addOptionalAttendee(OPTIONAL_C);
+
+    MaxOptionalAttendeesQuery.Result actual = query.query(calendar, request);
+
+    Assert.assertEquals(2, actual.getAvailableOptionalAttendees());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false)),
+        actual.getSlots());
+  }
+
+  @Test
+  public void requiredAttendeesAreNeverSkipped() {
+    EventIndex calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1200PM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(OPTIONAL_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(OPTIONAL_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(OPTIONAL_A);
+
+    MaxOptionalAttendeesQuery.Result actual = query.query(calendar, request);
+
+    Assert.assertEquals(0, actual.getAvailableOptionalAttendees());
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true)),
+        actual.getSlots());
+  }
+
+  @Test
+  public void noTimesWhenRequiredAttendeesAreBusy() {
+    EventIndex calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(OPTIONAL_A);
+
+    Assert.assertEquals(Collections.emptyList(), query.query(calendar, request).getSlots());
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    // Check every start time by hand for a large number of random calendars.
+    Random random = new Random(3);
+    List<String> required = Arrays.asList("R1", "R2");
+    List<String> optional = Arrays.asList("O1", "O2", "O3", "O4", "O5");
+
+    for (int i = 0; i < 200; i++) {
+      List<Event> events = new ArrayList<>();
+      for (int j = 0; j < 12; j++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        int duration = random.nextInt(Math.min(240, TimeRange.WHOLE_DAY.duration() - start + 1));
+        String attendee = random.nextInt(4) == 0
+            ? required.get(random.nextInt(required.size()))
+            : optional.get(random.nextInt(optional.size()));
+        events.add(new Event("Event " + j, TimeRange.fromStartDuration(start, duration),
+            Arrays.asList(attendee)));
+      }
+      int duration = 1 + random.nextInt(120);
+      MeetingRequest request = new MeetingRequest(required, duration);
+      for (String attendee : optional) {
+        request.addOptionalAttendee(attendee);
+      }
+
+      // For every start time, -1 if a required attendee is busy, otherwise how many optional
+      // attendees are free.
+      int lastStart = TimeRange.WHOLE_DAY.duration() - duration;
+      int[] free = new int[lastStart + 1];
+      int best = -1;
+      for (int start = 0; start <= lastStart; start++) {
+        TimeRange meeting = TimeRange.fromStartDuration(start, duration);
+        if (countFree(events, required, meeting) == required.size()) {
+          free[start] = countFree(events, optional, meeting);
+          best = Math.max(best, free[start]);
+        } else {
+          free[start] = -1;
+        }
+      }
+      List<TimeRange> expected = new ArrayList<>();
+      for (int start = 0; start <= lastStart; start++) {
+        if (best >= 0 && free[start] == best) {
+          int end = start;
+          while (end + 1 <= lastStart && free[end + 1] == best) {
+            end++;
+          }
+          expected.add(TimeRange.fromStartEnd(start, end + duration, false));
+          start = end;
+        }
+      }
+
+      MaxOptionalAttendeesQuery.Result actual = query.query(new EventIndex(events), request);
+      Assert.assertEquals(expected, actual.getSlots());
+      if (best >= 0) {
+        Assert.assertEquals(best, actual.getAvailableOptionalAttendees());
+      }
+    }
+  }
+
+  // Returns how many of the people have no events overlapping the meeting.
+  private static int countFree(List<Event> events, List<String> people, TimeRange meeting) {
+    int free = 0;
+    for (String person : people) {
+      boolean busy = false;
+      for (Event event : events) {
+        if (event.getAttendees().contains(person) && event.getWhen().duration() > 0
+            && event.getWhen().overlaps(meeting)) {
+          busy = true;
+        }
+      }
+      if (!busy) {
+        free++;
+      }
+    }
+    return free;
+  }
+}
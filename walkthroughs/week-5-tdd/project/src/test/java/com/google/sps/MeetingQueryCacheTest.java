@@ -0,0 +1,128 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingQueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final Event EVENT_A = new Event("Event A",
+      TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A));
+
+  private CalendarStore store;
+  private MeetingQueryCache cache;
+
+  @Before
+  public void setUp() {
+    store = new CalendarStore(Arrays.asList(EVENT_A));
+    cache = new MeetingQueryCache(2);
+  }
+
+  @Test
+  public void attendeeOrderDoesNotMatter() {
+    cache.query(store, new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES));
+    cache.query(store, new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), DURATION_30_MINUTES));
+
+    Assert.assertEquals(1, cache.getMisses());
+    Assert.assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void answersSayWhetherTheyWereCached() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    MeetingQueryCache.Answer first = cache.answer(store, request);
+    MeetingQueryCache.Answer second = cache.answer(store, request);
+
+    Assert.assertFalse(first.isHit());
+    Assert.assertTrue(second.isHit());
+    Assert.assertEquals(new ArrayList<>(first.getTimes()), new ArrayList<>(second.getTimes()));
+  }
+
+  @Test
+  public void changeToAnAttendeeRecomputesTheAnswer() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    cache.query(store, request);
+
+    store.removeEvent(EVENT_A);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.WHOLE_DAY), new ArrayList<>(cache.query(store, request)));
+    Assert.assertEquals(2, cache.getMisses());
+    Assert.assertEquals(0, cache.getHits());
+  }
+
+  @Test
+  public void changeToSomebodyElseKeepsTheAnswer() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    cache.query(store, request);
+
+    store.addEvent(new Event("Event C", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C)));
+    cache.query(store, request);
+
+    Assert.assertEquals(1, cache.getMisses());
+    Assert.assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void leastRecentlyUsedAnswerIsDropped() {
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+
+    cache.query(store, requestA);
+    cache.query(store, requestB);
+    // Using A again makes B the least recently used answer.
+    cache.query(store, requestA);
+    cache.query(store, requestC);
+    cache.query(store, requestA);
+    cache.query(store, requestB);
+
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(2, cache.getHits());
+    Assert.assertEquals(4, cache.getMisses());
+  }
+
+  @Test
+  public void answersPutFromOutsideAreReused() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    Assert.assertNull(cache.getIfPresent(store, request));
+
+    cache.put(store, request, Arrays.asList(TimeRange.WHOLE_DAY));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY),
+        new ArrayList<>(cache.getIfPresent(store, request)));
+    store.addEvent(new Event("Event A2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A)));
+    Assert.assertNull(cache.getIfPresent(store, request));
+    Assert.assertEquals(0, cache.getMisses());
+    Assert.assertEquals(1, cache.getHits());
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,4 +45,49 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void optionalAttendeesDefaultToEmptyFromJson() {
+    // The web page doesn't send optional attendees at all.
+    String json = "{\"duration\": 60, \"attendees\": [\"Person A\"]}";
+    MeetingRequest request = new Gson().fromJson(json, MeetingRequest.class);
+
+    Assert.assertEquals(Arrays.asList(PERSON_A), new ArrayList<>(request.getAttendees()));
+    Assert.assertEquals(0, request.getOptionalAttendees().size());
+    Assert.assertEquals(DURATION_1_HOUR, request.getDuration());
+  }
+
+  @Test
+  public void validateAcceptsAWellFormedRequest() {
+    String json = "{\"duration\": 60, \"attendees\": [\"Person A\", \"Person B\"],"
+        + " \"min_attendance\": 2, \"limit\": 3, \"preferred_start\": 540,"
+        + " \"preferred_end\": 1020, \"suggestions\": 4, \"time_budget_millis\": 50}";
+    MeetingRequest request = new Gson().fromJson(json, MeetingRequest.class);
+
+    request.validate();
+  }
+
+  @Test
+  public void validateRejectsOutOfRangeJson() {
+    String[] invalid = {
+        "{\"duration\": -1}",
+        "{\"duration\": 60, \"limit\": -5}",
+        "{\"duration\": 60, \"attendees\": [\"Person A\"], \"min_attendance\": 2}",
+        "{\"duration\": 60, \"min_attendance\": -1}",
+        "{\"duration\": 60, \"earliest_start\": -30}",
+        "{\"duration\": 60, \"preferred_start\": 600, \"preferred_end\": 540}",
+        "{\"duration\": 60, \"preferred_end\": 2000}",
+        "{\"duration\": 60, \"suggestions\": -3}",
+        "{\"duration\": 60, \"time_budget_millis\": -1}"};
+
+    for (String json : invalid) {
+      MeetingRequest request = new Gson().fromJson(json, MeetingRequest.class);
+      try {
+        request.validate();
+        Assert.fail("accepted " + json);
+      } catch (IllegalArgumentException expected) {
+        // Expected.
+      }
+    }
+  }
+}
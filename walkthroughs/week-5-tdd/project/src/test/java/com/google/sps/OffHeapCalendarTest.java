@@ -0,0 +1,105 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class OffHeapCalendarTest {
+  private static final List<String> PEOPLE = Arrays.asList("P1", "P2", "P3", "P4", "P5");
+
+  @Test
+  public void busyTimesMatchIndex() {
+    Random random = new Random(22);
+    for (int i = 0; i < 20; i++) {
+      List<Event> events = randomEvents(random);
+      OffHeapCalendar calendar = new OffHeapCalendar(events);
+      EventIndex index = new EventIndex(events);
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      TimeRange window = TimeRange.fromStartDuration(start, random.nextInt(240));
+
+      for (String person : PEOPLE) {
+        Assert.assertEquals(nonEmpty(index.getBusyTimes(person, window)),
+            toList(calendar.getBusyTimes(person, window)));
+        Assert.assertEquals(nonEmpty(index.getBusyTimes(person, TimeRange.WHOLE_DAY)),
+            new ArrayList<>(calendar.getBusyTimes(person)));
+      }
+    }
+  }
+
+  @Test
+  public void queriesMatchIndex() {
+    Random random = new Random(5);
+    FindMeetingQuery query = new FindMeetingQuery();
+    for (int i = 0; i < 50; i++) {
+      List<Event> events = randomEvents(random);
+      MeetingRequest request = new MeetingRequest(PEOPLE.subList(0, 3), 1 + random.nextInt(120));
+      request.addOptionalAttendee(PEOPLE.get(4));
+
+      Assert.assertEquals(new ArrayList<>(query.query(new EventIndex(events), request)),
+          new ArrayList<>(query.query(new OffHeapCalendar(events), request)));
+    }
+  }
+
+  @Test
+  public void unknownPeopleAreFree() {
+    OffHeapCalendar calendar = new OffHeapCalendar(Collections.<Event>emptyList());
+
+    Assert.assertTrue(calendar.getBusyTimes("Nobody").isEmpty());
+    Assert.assertFalse(calendar.getBusyTimes("Nobody", TimeRange.WHOLE_DAY).iterator().hasNext());
+    Assert.assertEquals(0, calendar.getOffHeapBytes());
+  }
+
+  // The off-heap calendar leaves out events that take no time.
+  private static List<TimeRange> nonEmpty(Iterable<TimeRange> ranges) {
+    List<TimeRange> list = new ArrayList<>();
+    for (TimeRange range : ranges) {
+      if (range.duration() > 0) {
+        list.add(range);
+      }
+    }
+    Collections.sort(list, TimeRange.ORDER_BY_START.thenComparing(TimeRange.ORDER_BY_END));
+    return list;
+  }
+
+  private static List<TimeRange> toList(Iterable<TimeRange> ranges) {
+    List<TimeRange> list = new ArrayList<>();
+    for (TimeRange range : ranges) {
+      list.add(range);
+    }
+    return list;
+  }
+
+  private static List<Event> randomEvents(Random random) {
+    List<Event> events = new ArrayList<>();
+    for (int j = 0; j < 30; j++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = random.nextInt(Math.min(300, TimeRange.WHOLE_DAY.duration() - start + 1));
+      events.add(new Event("Event " + j, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(PEOPLE.get(random.nextInt(PEOPLE.size())),
+              PEOPLE.get(random.nextInt(PEOPLE.size())))));
+    }
+    return events;
+  }
+}
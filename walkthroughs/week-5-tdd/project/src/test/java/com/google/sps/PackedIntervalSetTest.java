@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PackedIntervalSetTest {
+
+  @Test
+  public void mergeJoinsOverlappingNestedAndTouchingIntervals() {
+    PackedIntervalSet set = intervals(50, 60, 0, 10, 5, 8, 10, 20, 30, 40, 35, 45);
+
+    set.merge();
+
+    Assert.assertEquals(ranges(0, 20, 30, 45, 50, 60), set.toTimeRanges());
+  }
+
+  @Test
+  public void emptyIntervalsAreIgnored() {
+    PackedIntervalSet set = intervals(10, 10, 20, 15);
+
+    Assert.assertTrue(set.isEmpty());
+  }
+
+  @Test
+  public void complementIsClippedToTheWindow() {
+    PackedIntervalSet set = intervals(0, 10, 20, 30, 90, 120);
+    set.merge();
+
+    set.complement(5, 100);
+
+    Assert.assertEquals(ranges(10, 20, 30, 90), set.toTimeRanges());
+  }
+
+  @Test
+  public void complementOfNothingIsTheWindow() {
+    PackedIntervalSet set = new PackedIntervalSet(1);
+
+    set.complement(0, 1440);
+
+    Assert.assertEquals(ranges(0, 1440), set.toTimeRanges());
+  }
+
+  @Test
+  public void intersectKeepsTheCommonParts() {
+    PackedIntervalSet set = intervals(0, 30, 40, 100);
+    PackedIntervalSet other = intervals(10, 50, 60, 70, 90, 200);
+
+    set.intersect(other);
+
+    Assert.assertEquals(ranges(10, 30, 40, 50, 60, 70, 90, 100), set.toTimeRanges());
+  }
+
+  @Test
+  public void intersectWithNothingIsEmpty() {
+    PackedIntervalSet set = intervals(0, 30);
+
+    set.intersect(new PackedIntervalSet());
+
+    Assert.assertEquals(Collections.emptyList(), set.toTimeRanges());
+  }
+
+  @Test
+  public void removeShorterThanKeepsExactFits() {
+    PackedIntervalSet set = intervals(0, 29, 40, 70, 100, 200);
+
+    set.removeShorterThan(30);
+
+    Assert.assertEquals(ranges(40, 70, 100, 200), set.toTimeRanges());
+  }
+
+  // Returns a set of the intervals given as start, end pairs.
+  private static PackedIntervalSet intervals(int... bounds) {
+    PackedIntervalSet set = new PackedIntervalSet(1);
+    for (int i = 0; i < bounds.length; i += 2) {
+      set.add(bounds[i], bounds[i + 1]);
+    }
+    return set;
+  }
+
+  // Returns the time ranges given as start, end pairs.
+  private static List<TimeRange> ranges(int... bounds) {
+    TimeRange[] ranges = new TimeRange[bounds.length / 2];
+    for (int i = 0; i < ranges.length; i++) {
+      ranges[i] = TimeRange.fromStartEnd(bounds[2 * i], bounds[2 * i + 1], false);
+    }
+    return Arrays.asList(ranges);
+  }
+}
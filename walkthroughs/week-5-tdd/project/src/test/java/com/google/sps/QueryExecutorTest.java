@@ -0,0 +1,112 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryExecutorTest {
+  private QueryExecutor executor;
+  private CountDownLatch started;
+  private CountDownLatch release;
+
+  @Before
+  public void setUp() {
+    executor = new QueryExecutor(1, 2);
+    started = new CountDownLatch(1);
+    release = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  public void queueFillsUpThenRejects() throws InterruptedException {
+    executor.execute(this::block);
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+    executor.execute(() -> {});
+    executor.execute(() -> {});
+
+    try {
+      executor.execute(() -> {});
+      Assert.fail();
+    } catch (RejectedExecutionException e) {
+      // The one running and the two queued are all it takes.
+    }
+
+    Assert.assertEquals(1, executor.getRunning());
+    Assert.assertEquals(2, executor.getQueued());
+    Assert.assertEquals(2, executor.getMaxQueued());
+    Assert.assertEquals(1, executor.getRejected());
+  }
+
+  @Test
+  public void queriesAreCountedWhenTheyFinish() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(3);
+    for (int i = 0; i < 3; i++) {
+      executor.execute(done::countDown);
+    }
+
+    Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    executor.shutdown();
+    while (executor.getCompleted() < 3) {
+      Thread.sleep(1);
+    }
+    Assert.assertEquals(0, executor.getRunning());
+    Assert.assertEquals(0, executor.getQueued());
+  }
+
+  @Test
+  public void queriesWhoseDeadlinePassedInTheQueueAreSkipped() throws InterruptedException {
+    executor.execute(this::block);
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+    AtomicBoolean ran = new AtomicBoolean();
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+    executor.execute(() -> ran.set(true), deadlineNanos);
+    CountDownLatch done = new CountDownLatch(1);
+    executor.execute(done::countDown, Long.MAX_VALUE);
+
+    while (System.nanoTime() - deadlineNanos < 0) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+
+    Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    Assert.assertFalse(ran.get());
+    Assert.assertEquals(1, executor.getExpired());
+  }
+
+  private void block() {
+    started.countDown();
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
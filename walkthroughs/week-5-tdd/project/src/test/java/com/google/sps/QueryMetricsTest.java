@@ -0,0 +1,41 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryMetricsTest {
+  @Test
+  public void requestsAreKeptByRoute() {
+    QueryMetrics metrics = new QueryMetrics();
+
+    metrics.recordRequest("cache_miss", 1000);
+    metrics.recordRequest("cache_hit", 10);
+    metrics.recordRequest("cache_hit", 12);
+
+    Assert.assertEquals(Arrays.asList("cache_hit", "cache_miss"),
+        new ArrayList<>(metrics.getRequestHistograms().keySet()));
+    Assert.assertEquals(15, metrics.getRequestHistograms().get("cache_hit").getQuantile(1));
+    Assert.assertEquals(1023, metrics.getRequestHistograms().get("cache_miss").getQuantile(0.5));
+  }
+}
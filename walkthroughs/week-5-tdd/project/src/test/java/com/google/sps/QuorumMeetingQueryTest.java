@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QuorumMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_60_MINUTES = 60;
+
+  private QuorumMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new QuorumMeetingQuery();
+  }
+
+  @Test
+  public void twoOfThreeIsEnough() {
+    // Events  :       |--A--|
+    //                       |--B--|
+    // Day     : |-----------------------------------|
+    // Options : |-----------|
+    //                       |-----------------------|
+    EventIndex calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_B))));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_60_MINUTES);
+    request.setMinAttendance(2);
+
+    // Only a meeting that overlaps both events misses two people, so the options touch but can't
+    // be joined: a meeting from 9:30 to 10:30 doesn't work.
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+    Assert.assertEquals(expected, query.query(calendar, request));
+  }
+
+  @Test
+  public void moreThanTheAttendeesIsImpossible() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    request.setMinAttendance(2);
+
+    Assert.assertEquals(Collections.emptyList(),
+        query.query(new EventIndex(Collections.<Event>emptyList()), request));
+  }
+
+  @Test
+  public void zeroMeansEveryone() {
+    Random random = new Random(5);
+    List<String> people = Arrays.asList("P1", "P2", "P3", "P4");
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+
+    for (int i = 0; i < 100; i++) {
+      EventIndex calendar = new EventIndex(randomEvents(random, people));
+      MeetingRequest request = new MeetingRequest(people, 1 + random.nextInt(120));
+
+      Assert.assertEquals(new ArrayList<>(findMeetingQuery.query(calendar, request)),
+          query.query(calendar, request));
+    }
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    Random random = new Random(8);
+    List<String> people = Arrays.asList("P1", "P2", "P3", "P4", "P5");
+
+    for (int i = 0; i < 100; i++) {
+      List<Event> events = randomEvents(random, people);
+      int duration = 1 + random.nextInt(120);
+      int minAttendance = 1 + random.nextInt(people.size());
+      MeetingRequest request = new MeetingRequest(people, duration);
+      request.setMinAttendance(minAttendance);
+
+      List<TimeRange> expected = new ArrayList<>();
+      int lastStart = TimeRange.WHOLE_DAY.duration() - duration;
+      for (int start = 0; start <= lastStart; start++) {
+        if (countFree(events, people, TimeRange.fromStartDuration(start, duration))
+            < minAttendance) {
+          continue;
+        }
+        int end = start;
+        while (end + 1 <= lastStart && countFree(events, people,
+            TimeRange.fromStartDuration(end + 1, duration)) >= minAttendance) {
+          end++;
+        }
+        expected.add(TimeRange.fromStartEnd(start, end + duration, false));
+        start = end;
+      }
+
+      Assert.assertEquals(expected, query.query(new EventIndex(events), request));
+    }
+  }
+
+  private static List<Event> randomEvents(Random random, List<String> people) {
+    List<Event> events = new ArrayList<>();
+    for (int j = 0; j < 10; j++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = random.nextInt(Math.min(300, TimeRange.WHOLE_DAY.duration() - start + 1));
+      events.add(new Event("Event " + j, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(people.get(random.nextInt(people.size())))));
+    }
+    return events;
+  }
+
+  // Returns how many of the people have no events overlapping the meeting.
+  private static int countFree(List<Event> events, List<String> people, TimeRange meeting) {
+    int free = 0;
+    for (String person : people) {
+      boolean busy = false;
+      for (Event event : events) {
+        busy |= event.getAttendees().contains(person) && event.getWhen().duration() > 0
+            && event.getWhen().overlaps(meeting);
+      }
+      free += busy ? 0 : 1;
+    }
+    return free;
+  }
+}
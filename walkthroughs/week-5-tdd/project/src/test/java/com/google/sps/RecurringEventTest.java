@@ -0,0 +1,180 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int HOUR = 60;
+  private static final int DAY = TimeRange.WHOLE_DAY.duration();
+
+  // Wednesday, January 1st 2020 and Friday, January 31st 2020, in minutes since the epoch.
+  private static final int JANUARY_1 = minutes(LocalDate.of(2020, 1, 1));
+  private static final int JANUARY_31 = minutes(LocalDate.of(2020, 1, 31));
+
+  @Test
+  public void dailyEventSkipsStraightToTheWindow() {
+    // A stand-up from 9 to 10 every other day, forever.
+    RecurringEvent standUp = new RecurringEvent("Stand-up",
+        TimeRange.fromStartDuration(JANUARY_1 + 9 * HOUR, HOUR), Arrays.asList(PERSON_A),
+        RecurringEvent.Frequency.DAILY, 2);
+
+    // Ten years later, a window of three days.
+    int windowStart = minutes(LocalDate.of(2030, 1, 2));
+    List<TimeRange> actual =
+        toList(standUp.occurrences(TimeRange.fromStartDuration(windowStart, 3 * DAY)));
+
+    // 2030-01-02 is 3654 days after 2020-01-01, so the event is on the 2nd and the 4th.
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartDuration(windowStart + 9 * HOUR, HOUR),
+        TimeRange.fromStartDuration(windowStart + 2 * DAY + 9 * HOUR, HOUR)), actual);
+  }
+
+  @Test
+  public void weeklyEventStopsAfterCountAndSkipsExceptions() {
+    RecurringEvent review = new RecurringEvent("Review",
+        TimeRange.fromStartDuration(JANUARY_1 + 14 * HOUR, HOUR), Arrays.asList(PERSON_A),
+        RecurringEvent.Frequency.WEEKLY, 1)
+        .withCount(3)
+        .withExceptions(Arrays.asList(JANUARY_1 + 7 * DAY + 14 * HOUR));
+
+    List<TimeRange> actual =
+        toList(review.occurrences(TimeRange.fromStartDuration(JANUARY_1, 60 * DAY)));
+
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartDuration(JANUARY_1 + 14 * HOUR, HOUR),
+        TimeRange.fromStartDuration(JANUARY_1 + 14 * DAY + 14 * HOUR, HOUR)), actual);
+  }
+
+  @Test
+  public void monthlyEventSkipsShortMonths() {
+    RecurringEvent closing = new RecurringEvent("Closing the books",
+        TimeRange.fromStartDuration(JANUARY_31, DAY), Arrays.asList(PERSON_A),
+        RecurringEvent.Frequency.MONTHLY, 1)
+        .withUntil(minutes(LocalDate.of(2020, 5, 31)));
+
+    List<TimeRange> actual =
+        toList(closing.occurrences(TimeRange.fromStartDuration(JANUARY_1, 365 * DAY)));
+
+    // February and April don't have a 31st.
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartDuration(JANUARY_31, DAY),
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 3, 31)), DAY),
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 5, 31)), DAY)), actual);
+  }
+
+  @Test
+  public void findsMeetingTimesOnOneDay() {
+    // A's daily stand-up from 9 to 10 and a one-off event for B from 10 to 12 on the 15th.
+    RecurringEvent standUp = new RecurringEvent("Stand-up",
+        TimeRange.fromStartDuration(JANUARY_1 + 9 * HOUR, HOUR), Arrays.asList(PERSON_A),
+        RecurringEvent.Frequency.DAILY, 1);
+    TimeRange day = HorizonMeetingQuery.days(LocalDate.of(2020, 1, 15), 1);
+    EventIndex oneOffEvents = new EventIndex(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(day.start() + 10 * HOUR, 2 * HOUR),
+        Arrays.asList(PERSON_B))));
+    RecurringCalendar calendar =
+        new RecurringCalendar(oneOffEvents, Collections.singletonList(standUp), day);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), HOUR);
+
+    List<TimeRange> actual =
+        new ArrayList<>(new FindMeetingQuery().query(calendar, request, day));
+
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartEnd(day.start(), day.start() + 9 * HOUR, false),
+        TimeRange.fromStartEnd(day.start() + 12 * HOUR, day.end(), false)), actual);
+  }
+
+  @Test
+  public void busyTimesWithoutWindowCoverTheHorizon() {
+    // A weekly meeting that started two years before the horizon, and a daily one that stops
+    // after three occurrences, the last of them inside of the horizon.
+    RecurringEvent weekly = new RecurringEvent("Weekly",
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2018, 1, 6)), HOUR),
+        Arrays.asList(PERSON_A), RecurringEvent.Frequency.WEEKLY, 1);
+    RecurringEvent daily = new RecurringEvent("Daily",
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2019, 12, 30)), HOUR),
+        Arrays.asList(PERSON_A), RecurringEvent.Frequency.DAILY, 1).withCount(3);
+    TimeRange horizon = HorizonMeetingQuery.days(LocalDate.of(2020, 1, 1), 14);
+    RecurringCalendar calendar = new RecurringCalendar(
+        new EventIndex(Collections.<Event>emptyList()), Arrays.asList(weekly, daily), horizon);
+
+    List<TimeRange> busyTimes = new ArrayList<>(calendar.getBusyTimes(PERSON_A));
+
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 1, 4)), HOUR),
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 1, 11)), HOUR),
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 1, 1)), HOUR)), busyTimes);
+  }
+
+  @Test
+  public void monthlyEventsSkipToFarWindows() {
+    RecurringEvent monthly = new RecurringEvent("Monthly",
+        TimeRange.fromStartDuration(minutes(LocalDate.of(1990, 1, 31)), DAY),
+        Arrays.asList(PERSON_A), RecurringEvent.Frequency.MONTHLY, 2);
+    TimeRange window = HorizonMeetingQuery.days(LocalDate.of(2020, 1, 1), 366);
+
+    List<TimeRange> actual = toList(monthly.occurrences(window));
+
+    // Every other month since January 1990 lands on the odd months, and only some have a 31st.
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 1, 31)), DAY),
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 3, 31)), DAY),
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 5, 31)), DAY),
+        TimeRange.fromStartDuration(minutes(LocalDate.of(2020, 7, 31)), DAY)), actual);
+  }
+
+  @Test
+  public void bitsetQueryReadsEndlessEvents() {
+    // A daily stand-up from 9 to 10 that started on the first day the minutes count from.
+    RecurringEvent standUp = new RecurringEvent("Stand-up",
+        TimeRange.fromStartDuration(9 * HOUR, HOUR), Arrays.asList(PERSON_A),
+        RecurringEvent.Frequency.DAILY, 1);
+    RecurringCalendar calendar = new RecurringCalendar(
+        new EventIndex(Collections.<Event>emptyList()), Collections.singletonList(standUp),
+        TimeRange.WHOLE_DAY);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), HOUR);
+
+    List<TimeRange> actual = new ArrayList<>(new BitsetMeetingQuery().query(calendar, request));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 9 * HOUR, false),
+        TimeRange.fromStartEnd(10 * HOUR, TimeRange.END_OF_DAY, true)), actual);
+  }
+
+  private static int minutes(LocalDate date) {
+    return (int) date.toEpochDay() * DAY;
+  }
+
+  private static List<TimeRange> toList(Iterable<TimeRange> ranges) {
+    List<TimeRange> list = new ArrayList<>();
+    for (TimeRange range : ranges) {
+      list.add(range);
+    }
+    return list;
+  }
+}
@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Room SMALL_ROOM = new Room("Small room", 2);
+  private static final Room ROOM_1 = new Room("Room 1", 5);
+  private static final Room ROOM_2 = new Room("Room 2", 5);
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_60_MINUTES = 60;
+
+  private RoomMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new RoomMeetingQuery();
+  }
+
+  @Test
+  public void roomsThatAreTooSmallAreSkipped() {
+    RoomDirectory rooms = new RoomDirectory(Arrays.asList(ROOM_1, SMALL_ROOM));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_60_MINUTES);
+
+    List<RoomMeetingQuery.Option> actual =
+        query.query(new EventIndex(Collections.<Event>emptyList()), rooms, request);
+
+    Assert.assertEquals(1, actual.size());
+    Assert.assertEquals(TimeRange.WHOLE_DAY, actual.get(0).getWhen());
+    Assert.assertEquals(ROOM_1, actual.get(0).getRoom());
+  }
+
+  @Test
+  public void roomBookingsAndPeopleBothCount() {
+    // Events  :       |--A--|
+    // Room 1  :             |--B--|
+    // Day     : |-----------------------------------|
+    // Room 1  : |-----|           |-----------------|
+    // Room 2  : |-----|     |-----------------------|
+    CalendarView calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Booking", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(ROOM_1.getName()))));
+    RoomDirectory rooms = RoomDirectory.fromCalendar(Arrays.asList(ROOM_1, ROOM_2), calendar);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+
+    List<String> actual = new ArrayList<>();
+    for (RoomMeetingQuery.Option option : query.query(calendar, rooms, request)) {
+      actual.add(option.toString());
+    }
+    List<String> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false) + " in " + ROOM_1,
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false) + " in " + ROOM_2,
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true) + " in " + ROOM_2,
+        TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true) + " in " + ROOM_1);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesAreDroppedWhenNoRoomSuitsEverybody() {
+    // Events  : |--C (optional)--|
+    // Room 1  :                  |---------Booking---------|
+    // Day     : |-----------------------------------------|
+    // Everybody is free after C's event, but Room 1 isn't, so A and B meet in the small room,
+    // which is big enough once C is left out.
+    CalendarView calendar = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Booking", TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(ROOM_1.getName()))));
+    RoomDirectory rooms = RoomDirectory.fromCalendar(Arrays.asList(SMALL_ROOM, ROOM_1), calendar);
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<String> actual = new ArrayList<>();
+    for (RoomMeetingQuery.Option option : query.query(calendar, rooms, request)) {
+      actual.add(option.toString());
+    }
+    List<String> expected = Arrays.asList(
+        TimeRange.WHOLE_DAY + " in " + SMALL_ROOM,
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false) + " in " + ROOM_1);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noRoomIsBigEnough() {
+    RoomDirectory rooms = new RoomDirectory(Arrays.asList(SMALL_ROOM));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_60_MINUTES);
+
+    Assert.assertEquals(Collections.emptyList(),
+        query.query(new EventIndex(Collections.<Event>emptyList()), rooms, request));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bookingUnknownRoomFails() {
+    new RoomDirectory(Arrays.asList(ROOM_1)).book("Room 3", TimeRange.WHOLE_DAY);
+  }
+}
@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ShardedMeetingQueryTest {
+  private static final List<String> PEOPLE = Arrays.asList("P1", "P2", "P3", "P4", "P5", "P6");
+  private static final int SHARDS = 3;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(SHARDS);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void matchesUnshardedQuery() throws IOException {
+    Random random = new Random(19);
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+
+    for (int i = 0; i < 100; i++) {
+      List<Event> events = randomEvents(random);
+      List<ShardClient> clients = new ArrayList<>();
+      for (CalendarShard shard : CalendarShard.partition(events, SHARDS)) {
+        clients.add(ShardClient.loopback(shard));
+      }
+      ShardedMeetingQuery query = new ShardedMeetingQuery(clients, executor);
+
+      List<String> people = new ArrayList<>(PEOPLE);
+      Collections.shuffle(people, random);
+      MeetingRequest request = new MeetingRequest(people.subList(0, 3), 1 + random.nextInt(120));
+      request.addOptionalAttendee(people.get(3));
+
+      Assert.assertEquals(
+          new ArrayList<>(findMeetingQuery.query(new EventIndex(events), request)),
+          new ArrayList<>(query.query(request)));
+    }
+  }
+
+  @Test
+  public void localAndLoopbackClientsAgree() throws IOException {
+    CalendarShard shard = new CalendarShard(randomEvents(new Random(3)));
+    List<List<String>> groups = Arrays.asList(PEOPLE.subList(0, 2), PEOPLE.subList(2, 6));
+
+    PackedIntervalSet[] local = ShardClient.local(shard).busyTimes(groups, TimeRange.WHOLE_DAY);
+    PackedIntervalSet[] loopback =
+        ShardClient.loopback(shard).busyTimes(groups, TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(2, loopback.length);
+    for (int i = 0; i < local.length; i++) {
+      Assert.assertEquals(local[i].toTimeRanges(), loopback[i].toTimeRanges());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void hugeCountsAreRejectedBeforeAllocating() throws IOException {
+    // An answer that claims 2^31 - 1 groups and sends none of them.
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new DataOutputStream(bytes).writeInt(Integer.MAX_VALUE);
+
+    ShardProtocol.readResponse(
+        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedAnswersAreRejected() throws IOException {
+    // One group that claims more intervals than it has.
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(1);
+    out.writeInt(ShardProtocol.MAX_INTERVALS);
+    out.writeInt(0);
+    out.writeInt(60);
+
+    ShardProtocol.readResponse(
+        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  @Test
+  public void shardFailureIsReported() {
+    ShardClient failing = (groups, window) -> {
+      throw new IOException("shard is down");
+    };
+    ShardedMeetingQuery query =
+        new ShardedMeetingQuery(Collections.nCopies(SHARDS, failing), executor);
+
+    try {
+      query.query(new MeetingRequest(PEOPLE, 30));
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("shard is down", e.getMessage());
+    }
+  }
+
+  private static List<Event> randomEvents(Random random) {
+    List<Event> events = new ArrayList<>();
+    for (int j = 0; j < 20; j++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = random.nextInt(Math.min(300, TimeRange.WHOLE_DAY.duration() - start + 1));
+      events.add(new Event("Event " + j, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(PEOPLE.get(random.nextInt(PEOPLE.size())),
+              PEOPLE.get(random.nextInt(PEOPLE.size())))));
+    }
+    return events;
+  }
+}